@@ -1,32 +1,59 @@
 package run.halo.moments;
 
+import static run.halo.app.extension.index.query.QueryFactory.startsWith;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import java.util.Set;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import run.halo.app.core.extension.content.Comment;
+import run.halo.app.extension.DefaultExtensionMatcher;
 import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.ExtensionMatcher;
 import run.halo.app.extension.ExtensionUtil;
 import run.halo.app.extension.GroupVersionKind;
 import run.halo.app.extension.Ref;
 import run.halo.app.extension.controller.Controller;
 import run.halo.app.extension.controller.ControllerBuilder;
 import run.halo.app.extension.controller.Reconciler;
+import run.halo.app.extension.router.selector.FieldSelector;
 import run.halo.moments.event.MomentHasNewCommentEvent;
 
 /**
- * Reconciler for comment.
+ * <p>Reconciler for comment.</p>
+ * <p>Only comments on moments are watched. Events of other comments are filtered by the
+ * <code>spec.subjectRef</code> index before any fetch and counted as
+ * {@code moments.reconcile.filtered} tagged with the extension.</p>
  *
  * @author guqing
  * @since 1.1.0
  */
 @Component
-@RequiredArgsConstructor
 public class CommentReconciler implements Reconciler<Reconciler.Request> {
 
     private static final String FINALIZER = "moment.halo.run/finalizer";
+
+    /**
+     * Prefix of the <code>spec.subjectRef</code> index values of comments on moments, which
+     * are formatted as <code>group/kind/name</code>.
+     */
+    private static final String MOMENT_SUBJECT_REF_PREFIX = "moment.halo.run/Moment/";
+
     private final ExtensionClient client;
     private final ApplicationEventPublisher eventPublisher;
+    private final Counter filteredCounter;
+
+    public CommentReconciler(ExtensionClient client, ApplicationEventPublisher eventPublisher,
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.client = client;
+        this.eventPublisher = eventPublisher;
+        this.filteredCounter = Counter.builder("moments.reconcile.filtered")
+            .tag("extension", "comments")
+            .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
 
     @Override
     public Result reconcile(Request request) {
@@ -54,10 +81,25 @@ public class CommentReconciler implements Reconciler<Reconciler.Request> {
 
     @Override
     public Controller setupWith(ControllerBuilder builder) {
+        final var comment = new Comment();
+        var momentComments = DefaultExtensionMatcher.builder(client, comment.groupVersionKind())
+            .fieldSelector(
+                FieldSelector.of(startsWith("spec.subjectRef", MOMENT_SUBJECT_REF_PREFIX))
+            )
+            .build();
+        ExtensionMatcher matcher = extension -> {
+            if (momentComments.match(extension)) {
+                return true;
+            }
+            filteredCounter.increment();
+            return false;
+        };
         return builder
-            .extension(new Comment())
+            .extension(comment)
             // avoid triggering notification on startup for old comments
             .syncAllOnStart(false)
+            .onAddMatcher(matcher)
+            .onUpdateMatcher(matcher)
             .build();
     }
 }
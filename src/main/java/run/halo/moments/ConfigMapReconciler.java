@@ -0,0 +1,92 @@
+package run.halo.moments;
+
+import java.util.Objects;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.Theme;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.ExtensionMatcher;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.moments.event.ConfigMapUpdatedEvent;
+import run.halo.moments.event.ThemeUpdatedEvent;
+import run.halo.moments.util.SystemConfigUtils;
+
+/**
+ * <p>Evicts the cached moment pages whenever a {@link ConfigMap} the pages depend on changes,
+ * and announces the change to other caches.</p>
+ * <p>Only the system config, which holds the active theme and the external URL, the plugin
+ * settings and the settings of the active theme are watched. The config map name of the
+ * active theme is kept in memory and refreshed when the system config or a theme changes, so
+ * the watcher does not read the store for every config map.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ConfigMapReconciler implements Reconciler<Reconciler.Request> {
+
+    /**
+     * Name of the config map of this plugin, see <code>plugin.yaml</code>.
+     */
+    private static final String PLUGIN_CONFIG_NAME = "plugin-moments-configmap";
+
+    private static final Set<String> WATCHED_NAMES =
+        Set.of(SystemConfigUtils.SYSTEM_CONFIG_NAME, PLUGIN_CONFIG_NAME);
+
+    private final ExtensionClient client;
+
+    private final MomentPageCacheFilter momentPageCacheFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Config map name of the active theme, null if none.
+     */
+    private volatile String themeConfigMapName;
+
+    @Override
+    public Result reconcile(Request request) {
+        if (SystemConfigUtils.SYSTEM_CONFIG_NAME.equals(request.name())) {
+            // the active theme may have changed
+            refreshThemeConfigMapName();
+        }
+        momentPageCacheFilter.invalidateAll();
+        eventPublisher.publishEvent(new ConfigMapUpdatedEvent(this, request.name()));
+        return Result.doNotRetry();
+    }
+
+    @EventListener
+    public void onThemeUpdated(ThemeUpdatedEvent event) {
+        // the config map name of the active theme may have changed
+        refreshThemeConfigMapName();
+    }
+
+    private void refreshThemeConfigMapName() {
+        themeConfigMapName = client.fetch(ConfigMap.class, SystemConfigUtils.SYSTEM_CONFIG_NAME)
+            .map(SystemConfigUtils::activeTheme)
+            .flatMap(activeTheme -> client.fetch(Theme.class, activeTheme))
+            .map(theme -> theme.getSpec().getConfigMapName())
+            .orElse(null);
+    }
+
+    private boolean isWatched(String name) {
+        return WATCHED_NAMES.contains(name) || Objects.equals(themeConfigMapName, name);
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        refreshThemeConfigMapName();
+        ExtensionMatcher matcher = extension -> isWatched(extension.getMetadata().getName());
+        return builder
+            .extension(new ConfigMap())
+            // nothing is cached on startup
+            .syncAllOnStart(false)
+            .onAddMatcher(matcher)
+            .onUpdateMatcher(matcher)
+            .build();
+    }
+}
@@ -1,6 +1,7 @@
 package run.halo.moments;
 
 import lombok.Data;
+import run.halo.moments.vo.ContributorVo;
 
 /**
  * @author LIlGG
@@ -10,4 +11,12 @@ public class Contributor {
     private String displayName;
     private String avatar;
     private String name;
+
+    public static Contributor from(ContributorVo contributorVo) {
+        Contributor contributor = new Contributor();
+        contributor.setName(contributorVo.getName());
+        contributor.setDisplayName(contributorVo.getDisplayName());
+        contributor.setAvatar(contributorVo.getAvatar());
+        return contributor;
+    }
 }
@@ -0,0 +1,52 @@
+package run.halo.moments;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.Counter;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.moments.event.MomentStatsUpdatedEvent;
+import run.halo.moments.service.MomentStatsService;
+import run.halo.moments.util.MeterUtils;
+
+/**
+ * Writes the stats of a moment through to the stats cache whenever its {@link Counter}
+ * changes, and publishes a {@link MomentStatsUpdatedEvent} if the stats actually changed.
+ * Counters of other extensions are ignored without being fetched.
+ */
+@Component
+@RequiredArgsConstructor
+public class CounterReconciler implements Reconciler<Reconciler.Request> {
+
+    static final String MOMENT_COUNTER_PREFIX = MeterUtils.nameOf(Moment.class, "");
+
+    private final ExtensionClient client;
+    private final MomentStatsService momentStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Result reconcile(Request request) {
+        if (!StringUtils.startsWith(request.name(), MOMENT_COUNTER_PREFIX)) {
+            return Result.doNotRetry();
+        }
+        var momentName = StringUtils.removeStart(request.name(), MOMENT_COUNTER_PREFIX);
+        var counter = client.fetch(Counter.class, request.name()).orElse(null);
+        if (momentStatsService.updateStats(momentName, counter)) {
+            eventPublisher.publishEvent(new MomentStatsUpdatedEvent(this, momentName));
+        }
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Counter())
+            // stats are loaded lazily, so there is nothing to sync on startup
+            .syncAllOnStart(false)
+            .build();
+    }
+}
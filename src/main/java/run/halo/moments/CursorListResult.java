@@ -0,0 +1,40 @@
+package run.halo.moments;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.function.Function;
+import lombok.Getter;
+import run.halo.app.extension.ListResult;
+
+/**
+ * A {@link ListResult} of a cursor-paginated query, carrying the cursor of the next page.
+ *
+ * @param <T> item type
+ */
+@Getter
+public class CursorListResult<T> extends ListResult<T> {
+
+    @Schema(description = "Cursor of the next page, absent on the last page.")
+    private final String nextCursor;
+
+    public CursorListResult(ListResult<T> result, String nextCursor) {
+        super(result.getPage(), result.getSize(), result.getTotal(), result.getItems());
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Creates a cursor list result whose next cursor points at the last item of the page.
+     *
+     * @param result the list result of the current page
+     * @param cursorExtractor function to extract the cursor of an item
+     */
+    public static <T> CursorListResult<T> of(ListResult<T> result,
+        Function<T, MomentCursor> cursorExtractor) {
+        var items = result.getItems();
+        String nextCursor = null;
+        if (result.hasNext() && items != null && !items.isEmpty()) {
+            var cursor = cursorExtractor.apply(items.get(items.size() - 1));
+            nextCursor = cursor == null ? null : cursor.encode();
+        }
+        return new CursorListResult<>(result, nextCursor);
+    }
+}
@@ -12,6 +12,7 @@ import run.halo.app.infra.AnonymousUserConst;
 import java.security.Principal;
 import java.util.function.Predicate;
 
+import static run.halo.app.extension.index.query.QueryFactory.all;
 import static run.halo.app.extension.index.query.QueryFactory.and;
 import static run.halo.app.extension.index.query.QueryFactory.equal;
 import static run.halo.app.extension.index.query.QueryFactory.isNull;
@@ -40,23 +41,30 @@ public class DefaultQueryMomentPredicateResolver implements ReactiveQueryMomentP
     @Override
     public Mono<ListOptions> getListOptions() {
         var listOptions = new ListOptions();
-        var fieldQuery = and(
+        // public moments are selected by the composite index, which only covers moments
+        // with a release time, those the moment reconciler has not filled yet are matched
+        // by the deletion, approval and visibility indexes
+        var publicQuery = or(all(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME), and(
+            isNull(Moment.RELEASE_TIME_KEY_INDEX_NAME),
             isNull("metadata.deletionTimestamp"),
-            equal("spec.approved", Boolean.TRUE.toString())
-        );
-        var visibleQuery = equal("spec.visible", Moment.MomentVisible.PUBLIC.name());
+            equal("spec.approved", Boolean.TRUE.toString()),
+            equal("spec.visible", Moment.MomentVisible.PUBLIC.name())
+        ));
         return currentUserName()
-            .map(username -> and(fieldQuery,
-                or(visibleQuery, equal("spec.owner", username)))
-            )
-            .defaultIfEmpty(and(fieldQuery, visibleQuery))
+            .map(username -> or(publicQuery, and(
+                isNull("metadata.deletionTimestamp"),
+                equal("spec.approved", Boolean.TRUE.toString()),
+                equal("spec.owner", username)
+            )))
+            .defaultIfEmpty(publicQuery)
             .map(query -> {
                 listOptions.setFieldSelector(FieldSelector.of(query));
                 return listOptions;
             });
     }
 
-    Mono<String> currentUserName() {
+    @Override
+    public Mono<String> currentUserName() {
         return ReactiveSecurityContextHolder.getContext()
             .map(SecurityContext::getAuthentication)
             .map(Principal::getName)
@@ -1,5 +1,6 @@
 package run.halo.moments;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -18,8 +19,10 @@ public class ListedMoment {
     private Moment moment;
     
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Contributor owner;
     
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Stats stats;
 }
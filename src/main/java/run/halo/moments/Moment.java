@@ -2,14 +2,19 @@ package run.halo.moments;
 
 import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.web.server.ServerWebInputException;
 import run.halo.app.extension.AbstractExtension;
 import run.halo.app.extension.GVK;
 
@@ -21,6 +26,29 @@ import run.halo.app.extension.GVK;
 public class Moment extends AbstractExtension {
     public static final String REQUIRE_SYNC_ON_STARTUP_INDEX_NAME = "requireSyncOnStartup";
 
+    /**
+     * Index of the moments whose search document is outdated or must be removed, see
+     * {@link run.halo.moments.search.DocumentConverter#requiresSearchSync(Moment)}.
+     */
+    public static final String REQUIRE_SEARCH_SYNC_INDEX_NAME = "requireSearchSync";
+
+    /**
+     * Index of {@link MomentSpec#getReleaseTime()} encoded by {@link #releaseTimeKey(Instant)},
+     * use it instead of <code>spec.releaseTime</code> for range queries and sorting.
+     */
+    public static final String RELEASE_TIME_KEY_INDEX_NAME = "spec.releaseTimeKey";
+
+    /**
+     * Composite index of the moments listed to anonymous visitors, that is not deleted,
+     * approved and public. The value is the release time key, null for other moments.
+     */
+    public static final String PUBLIC_RELEASE_TIME_KEY_INDEX_NAME = "publicReleaseTimeKey";
+
+    /**
+     * Multi-value index of the distinct {@link MomentMediaType}s in the medium of a moment.
+     */
+    public static final String MEDIUM_TYPE_INDEX_NAME = "spec.content.medium.type";
+
     @Schema(requiredMode = REQUIRED)
     private MomentSpec spec;
 
@@ -63,11 +91,14 @@ public class Moment extends AbstractExtension {
     public static class MomentContent {
 
         @Schema(description = "Raw of content")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         private String raw;
 
         @Schema(description = "Rendered result with HTML format")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         private String html;
 
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         @ArraySchema(
             uniqueItems = true,
             arraySchema = @Schema(description = "Medium of moment"),
@@ -92,8 +123,43 @@ public class Moment extends AbstractExtension {
         PHOTO,
         VIDEO,
         POST,
-        AUDIO,
+        AUDIO;
         // TODO Might add more types here in the future
+
+        /**
+         * Convert value string to {@link MomentMediaType}.
+         *
+         * @param value enum value string
+         * @return {@link MomentMediaType} if found, otherwise null
+         */
+        public static MomentMediaType from(String value) {
+            for (MomentMediaType type : MomentMediaType.values()) {
+                if (type.name().equalsIgnoreCase(value)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Parses the value of a <code>mediaType</code> query parameter.
+         *
+         * @param value enum value string
+         * @return {@link MomentMediaType} if found, or null if the value is blank
+         * @throws ServerWebInputException if the value is not a media type
+         */
+        @Nullable
+        public static MomentMediaType parse(@Nullable String value) {
+            if (StringUtils.isBlank(value)) {
+                return null;
+            }
+            var type = from(value.trim());
+            if (type == null) {
+                throw new ServerWebInputException("Unknown media type: " + value
+                    + ", available values are " + Arrays.toString(values()) + ".");
+            }
+            return type;
+        }
     }
 
     public enum MomentVisible {
@@ -124,6 +190,19 @@ public class Moment extends AbstractExtension {
         }
     }
 
+    /**
+     * <p>Encodes the given release time as a fixed-width key whose lexicographic order is the
+     * chronological order.</p>
+     * <p>The epoch seconds are offset by {@link Long#MIN_VALUE} so that instants before the
+     * epoch sort first, and written as 20 unsigned digits followed by 9 digits of nanoseconds.
+     * {@link Instant#toString()} is not suitable since it omits zero fractions.</p>
+     */
+    public static String releaseTimeKey(Instant releaseTime) {
+        var seconds = Long.toUnsignedString(releaseTime.getEpochSecond() ^ Long.MIN_VALUE);
+        return StringUtils.leftPad(seconds, 20, '0')
+            + StringUtils.leftPad(Integer.toString(releaseTime.getNano()), 9, '0');
+    }
+
     public boolean isApproved() {
         return Boolean.TRUE.equals(this.getSpec().getApproved());
     }
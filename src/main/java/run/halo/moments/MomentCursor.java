@@ -0,0 +1,103 @@
+package run.halo.moments;
+
+import static run.halo.app.extension.index.query.QueryFactory.and;
+import static run.halo.app.extension.index.query.QueryFactory.equal;
+import static run.halo.app.extension.index.query.QueryFactory.lessThan;
+import static run.halo.app.extension.index.query.QueryFactory.or;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebInputException;
+import run.halo.app.extension.index.query.Query;
+
+/**
+ * <p>An opaque cursor for keyset pagination of moments.</p>
+ * <p>Moments are ordered by {@link Moment#RELEASE_TIME_KEY_INDEX_NAME} and
+ * {@code metadata.name} descending, and the cursor points at the last moment of the previous
+ * page, so the next page seeks on the indexes instead of skipping all previous items.</p>
+ *
+ * @param releaseTime release time of the last moment of the previous page
+ * @param name name of the last moment of the previous page
+ */
+public record MomentCursor(Instant releaseTime, String name) {
+
+    public static final String PARAM_NAME = "cursor";
+
+    public static final Sort SORT =
+        Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME, "metadata.name").descending();
+
+    private static final String SEPARATOR = "|";
+
+    public MomentCursor {
+        Assert.notNull(releaseTime, "The release time must not be null.");
+        Assert.hasText(name, "The name must not be blank.");
+    }
+
+    /**
+     * Decodes a cursor.
+     *
+     * @param cursor encoded cursor
+     * @return the decoded cursor, or null if the cursor is blank
+     * @throws ServerWebInputException if the cursor is malformed
+     */
+    @Nullable
+    public static MomentCursor decode(@Nullable String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var releaseTime = StringUtils.substringBefore(raw, SEPARATOR);
+            var name = StringUtils.substringAfter(raw, SEPARATOR);
+            return new MomentCursor(Instant.parse(releaseTime), name);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ServerWebInputException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Creates the cursor pointing at the given moment.
+     *
+     * @return the cursor, or null if the moment has no release time
+     */
+    @Nullable
+    public static MomentCursor of(Moment.MomentSpec spec, String name) {
+        if (spec == null || spec.getReleaseTime() == null) {
+            return null;
+        }
+        return new MomentCursor(spec.getReleaseTime(), name);
+    }
+
+    /**
+     * Creates the cursor pointing at the given moment.
+     *
+     * @return the cursor, or null if the moment has no release time
+     */
+    @Nullable
+    public static MomentCursor of(Moment moment) {
+        return of(moment.getSpec(), moment.getMetadata().getName());
+    }
+
+    public String encode() {
+        var raw = releaseTime + SEPARATOR + name;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds the query matching all moments after this cursor in {@link #SORT} order.
+     */
+    public Query toQuery() {
+        var releaseTimeKey = Moment.releaseTimeKey(releaseTime);
+        return or(lessThan(Moment.RELEASE_TIME_KEY_INDEX_NAME, releaseTimeKey),
+            and(equal(Moment.RELEASE_TIME_KEY_INDEX_NAME, releaseTimeKey),
+                lessThan("metadata.name", name))
+        );
+    }
+}
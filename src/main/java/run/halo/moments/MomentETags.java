@@ -0,0 +1,119 @@
+package run.halo.moments;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Supplier;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.MetadataOperator;
+import run.halo.moments.service.MomentEnricher;
+
+/**
+ * <p>Entity tags of moment read responses.</p>
+ * <p>A tag is derived from the name and version of each moment together with the owner and
+ * stats joined from the cached users and counters, so it changes whenever the moment, its
+ * counter or its owner changes. List tags additionally cover the paging information, the
+ * requested {@link MomentFields} and whether the page is cursor paged, as these change the
+ * shape of the body.</p>
+ * <p>Tags are derived from enriched moments rather than the response bodies, so a request
+ * matching the tag is answered before any body is built.</p>
+ */
+public final class MomentETags {
+
+    private MomentETags() {
+    }
+
+    public static String of(MomentEnricher.EnrichedMoment enrichedMoment) {
+        var digest = new Digest();
+        append(digest, enrichedMoment);
+        return digest.toETag();
+    }
+
+    public static String of(ListedMoment listedMoment) {
+        var digest = new Digest();
+        append(digest, listedMoment);
+        return digest.toETag();
+    }
+
+    public static String ofEnrichedMoments(ListResult<MomentEnricher.EnrichedMoment> result,
+        MomentFields fields, boolean cursorPaging) {
+        var digest = new Digest()
+            .update(fields)
+            .update(cursorPaging)
+            .update(result.getPage())
+            .update(result.getSize())
+            .update(result.getTotal());
+        if (result.getItems() != null) {
+            result.getItems().forEach(item -> append(digest, item));
+        }
+        return digest.toETag();
+    }
+
+    /**
+     * Responds with 304 if the request matches the given entity tag, otherwise writes the body
+     * as JSON along with the entity tag.
+     */
+    public static Mono<ServerResponse> okOrNotModified(ServerRequest request, String etag,
+        Object body) {
+        return okOrNotModified(request, etag, () -> body);
+    }
+
+    /**
+     * Responds with 304 if the request matches the given entity tag, otherwise builds the body
+     * and writes it as JSON along with the entity tag.
+     */
+    public static Mono<ServerResponse> okOrNotModified(ServerRequest request, String etag,
+        Supplier<?> bodySupplier) {
+        return request.checkNotModified(etag)
+            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bodySupplier.get())));
+    }
+
+    private static void append(Digest digest, MomentEnricher.EnrichedMoment enrichedMoment) {
+        appendMetadata(digest, enrichedMoment.moment().getMetadata());
+        digest.update(enrichedMoment.owner())
+            .update(enrichedMoment.stats());
+    }
+
+    private static void append(Digest digest, ListedMoment listedMoment) {
+        appendMetadata(digest, listedMoment.getMoment().getMetadata());
+        digest.update(listedMoment.getOwner())
+            .update(listedMoment.getStats());
+    }
+
+    private static void appendMetadata(Digest digest, MetadataOperator metadata) {
+        digest.update(metadata.getName())
+            .update(metadata.getVersion());
+    }
+
+    private static class Digest {
+
+        private final MessageDigest messageDigest;
+
+        Digest() {
+            try {
+                this.messageDigest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Digest update(Object value) {
+            messageDigest.update(Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+            return this;
+        }
+
+        String toETag() {
+            return "\"" + HexFormat.of().formatHex(messageDigest.digest()) + "\"";
+        }
+    }
+}
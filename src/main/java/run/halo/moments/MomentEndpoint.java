@@ -8,7 +8,7 @@ import static org.springdoc.core.fn.builders.requestbody.Builder.requestBodyBuil
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import java.time.Instant;
 import lombok.AllArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springdoc.core.fn.builders.schema.Builder;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
 import org.springframework.http.MediaType;
@@ -71,10 +71,18 @@ public class MomentEndpoint implements CustomEndpoint {
                     .parameter(parameterBuilder()
                         .name("name")
                         .in(ParameterIn.QUERY)
-                        .description("Tag name to query")
+                        .description("Tag name to query, tags starting with it are ranked "
+                            + "first")
                         .required(false)
                         .implementation(String.class)
                     )
+                    .parameter(parameterBuilder()
+                        .name("limit")
+                        .in(ParameterIn.QUERY)
+                        .description("Maximum number of tags to return")
+                        .required(false)
+                        .implementation(Integer.class)
+                    )
                     .response(responseBuilder()
                         .implementationArray(String.class)
                     ))
@@ -98,7 +106,8 @@ public class MomentEndpoint implements CustomEndpoint {
     private Mono<ServerResponse> getMoment(ServerRequest request) {
         var name = request.pathVariable("name");
         return momentService.findMomentByName(name)
-            .flatMap(moment -> ServerResponse.ok().bodyValue(moment));
+            .flatMap(moment -> MomentETags.okOrNotModified(request, MomentETags.of(moment),
+                moment));
     }
 
     @Override
@@ -119,17 +128,25 @@ public class MomentEndpoint implements CustomEndpoint {
 
     private Mono<ServerResponse> listMoment(ServerRequest serverRequest) {
         MomentQuery query = new MomentQuery(serverRequest.exchange());
-        return momentService.listMoment(query)
-            .flatMap(listedMoments -> ServerResponse.ok().bodyValue(listedMoments));
+        return momentService.listEnrichedMoments(query)
+            .flatMap(enriched -> MomentETags.okOrNotModified(serverRequest,
+                MomentETags.ofEnrichedMoments(enriched, query.getFields(),
+                    query.isCursorPaging()), () -> {
+                    var result = momentService.toListedMoments(enriched, query.getFields());
+                    return query.isCursorPaging()
+                        ? CursorListResult.of(result,
+                        listedMoment -> MomentCursor.of(listedMoment.getMoment())) : result;
+                }));
     }
 
     private Mono<ServerResponse> listMyTags(ServerRequest request) {
         String name = request.queryParam("name").orElse(null);
+        int limit = request.queryParam("limit")
+            .map(value -> NumberUtils.toInt(value, Integer.MAX_VALUE))
+            .filter(value -> value > 0)
+            .orElse(Integer.MAX_VALUE);
         return getCurrentUser()
-            .map(username -> new MomentQuery(request.exchange(), username))
-            .flatMapMany(momentService::listAllTags)
-            .filter(tagName -> StringUtils.isBlank(name) || StringUtils.containsIgnoreCase(tagName,
-                name))
+            .flatMapMany(username -> momentService.listTags(username, name, limit))
             .collectList()
             .flatMap(result -> ServerResponse.ok().bodyValue(result));
     }
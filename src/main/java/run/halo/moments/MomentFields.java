@@ -0,0 +1,161 @@
+package run.halo.moments;
+
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.springdoc.core.fn.builders.operation.Builder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * <p>Optional parts of a moment in list responses, requested by the <code>fields</code> query
+ * parameter.</p>
+ * <p>Metadata and the scalar parts of the spec are always returned. Parts that are not
+ * requested are neither serialized nor resolved during enrichment. All parts are returned
+ * if the parameter is absent.</p>
+ */
+public final class MomentFields {
+
+    public static final String PARAM_NAME = "fields";
+
+    public static final MomentFields ALL = new MomentFields(EnumSet.allOf(Field.class));
+
+    private final Set<Field> fields;
+
+    private MomentFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    public enum Field {
+        /**
+         * {@code spec.content.raw}.
+         */
+        RAW,
+        /**
+         * {@code spec.content.html}.
+         */
+        HTML,
+        /**
+         * {@code spec.content.medium}.
+         */
+        MEDIUM,
+        /**
+         * Stats of the moment.
+         */
+        STATS,
+        /**
+         * Owner of the moment.
+         */
+        OWNER
+    }
+
+    /**
+     * Parses the values of the <code>fields</code> query parameter, each value may contain
+     * several comma separated fields.
+     *
+     * @throws ServerWebInputException if a field is unknown
+     */
+    public static MomentFields from(@Nullable Collection<String> values) {
+        if (CollectionUtils.isEmpty(values)) {
+            return ALL;
+        }
+        var fields = EnumSet.noneOf(Field.class);
+        values.stream()
+            .flatMap(value -> Arrays.stream(StringUtils.split(value, ',')))
+            .map(StringUtils::trim)
+            .filter(StringUtils::isNotBlank)
+            .forEach(value -> {
+                try {
+                    fields.add(Field.valueOf(value.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new ServerWebInputException("Unknown moment field: " + value
+                        + ", available values are " + ALL + ".");
+                }
+            });
+        return new MomentFields(fields);
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * Returns the requested fields in declaration order, so equal projections are represented
+     * equally regardless of how they were requested.
+     */
+    @Override
+    public String toString() {
+        return fields.stream()
+            .map(field -> field.name().toLowerCase(Locale.ROOT))
+            .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Returns the given moment without the content parts that are not requested.
+     *
+     * @return the given moment itself if all content parts are requested, otherwise a copy
+     * sharing its metadata and status, the given moment is never modified
+     */
+    public Moment project(Moment moment) {
+        var spec = project(moment.getSpec());
+        if (spec == moment.getSpec()) {
+            return moment;
+        }
+        var projected = new Moment();
+        projected.setApiVersion(moment.getApiVersion());
+        projected.setKind(moment.getKind());
+        projected.setMetadata(moment.getMetadata());
+        projected.setSpec(spec);
+        projected.setStatus(moment.getStatus());
+        return projected;
+    }
+
+    /**
+     * Returns the given spec without the content parts that are not requested.
+     *
+     * @return the given spec itself if all content parts are requested, otherwise a copy
+     */
+    public Moment.MomentSpec project(Moment.MomentSpec spec) {
+        if (spec == null || spec.getContent() == null
+            || fields.containsAll(EnumSet.of(Field.RAW, Field.HTML, Field.MEDIUM))) {
+            return spec;
+        }
+        var content = new Moment.MomentContent();
+        if (includes(Field.RAW)) {
+            content.setRaw(spec.getContent().getRaw());
+        }
+        if (includes(Field.HTML)) {
+            content.setHtml(spec.getContent().getHtml());
+        }
+        if (includes(Field.MEDIUM)) {
+            content.setMedium(spec.getContent().getMedium());
+        }
+        var projected = new Moment.MomentSpec();
+        projected.setContent(content);
+        projected.setReleaseTime(spec.getReleaseTime());
+        projected.setVisible(spec.getVisible());
+        projected.setOwner(spec.getOwner());
+        projected.setTags(spec.getTags());
+        projected.setApproved(spec.getApproved());
+        projected.setApprovedTime(spec.getApprovedTime());
+        return projected;
+    }
+
+    public static void buildParameters(Builder builder) {
+        builder.parameter(parameterBuilder()
+            .in(ParameterIn.QUERY)
+            .name(PARAM_NAME)
+            .description("Comma separated optional parts to return, available values are "
+                + "raw, html, medium, stats and owner. All parts are returned if absent.")
+            .implementation(String.class)
+            .required(false));
+    }
+}
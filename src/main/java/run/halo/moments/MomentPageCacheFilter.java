@@ -0,0 +1,226 @@
+package run.halo.moments;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.infra.AnonymousUserConst;
+import run.halo.app.plugin.ReactiveSettingFetcher;
+import run.halo.app.security.AdditionalWebFilter;
+import run.halo.moments.event.ConfigMapUpdatedEvent;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentStatsUpdatedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.util.ExpiringLruCache;
+import run.halo.moments.util.SystemConfigUtils;
+
+/**
+ * <p>Caches the rendered HTML of the pages provided by {@link MomentRouter} for anonymous
+ * visitors, if enabled by the <code>pageCache</code> setting.</p>
+ * <p>Pages are keyed by active theme, path, tag and locale. All pages are evicted whenever a
+ * moment or its stats change, and by {@link ConfigMapReconciler} and {@link ThemeReconciler}
+ * whenever settings or themes change.</p>
+ */
+@Component
+public class MomentPageCacheFilter implements AdditionalWebFilter {
+
+    private static final Set<String> CACHEABLE_QUERY_PARAMS = Set.of("tag");
+
+    private final ServerWebExchangeMatcher requestMatcher = ServerWebExchangeMatchers.pathMatchers(
+        HttpMethod.GET, "/moments", "/moments/page/{page:\\d+}", "/moments/{momentName}");
+
+    private final ReactiveSettingFetcher settingFetcher;
+
+    private final ReactiveExtensionClient client;
+
+    /**
+     * Name of the active theme read from the system config, empty if none, null if not read
+     * yet.
+     */
+    private final AtomicReference<String> activeTheme = new AtomicReference<>();
+
+    private final ExpiringLruCache<String, CachedPage> cache;
+
+    /**
+     * Incremented on every eviction, so pages rendered before an eviction are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public MomentPageCacheFilter(ReactiveSettingFetcher settingFetcher,
+        ReactiveExtensionClient client, ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${moments.page-cache.maximum-size:256}") int maximumSize,
+        @Value("${moments.page-cache.time-to-live-seconds:600}") long timeToLive) {
+        this.settingFetcher = settingFetcher;
+        this.client = client;
+        this.cache = new ExpiringLruCache<>("page", maximumSize, Duration.ofSeconds(timeToLive),
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        return requestMatcher.matches(exchange)
+            .filter(matchResult -> matchResult.isMatch() && hasCacheableQuery(exchange))
+            .filterWhen(matchResult -> isEnabled())
+            .filterWhen(matchResult -> isAnonymous())
+            .flatMap(matchResult -> filterCached(exchange, chain).thenReturn(true))
+            .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(false)))
+            .then();
+    }
+
+    @EventListener({MomentUpdatedEvent.class, MomentDeletedEvent.class,
+        MomentStatsUpdatedEvent.class})
+    public void onMomentChanged() {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onConfigMapUpdated(ConfigMapUpdatedEvent event) {
+        if (SystemConfigUtils.SYSTEM_CONFIG_NAME.equals(event.getConfigMapName())) {
+            // the active theme may have changed
+            activeTheme.set(null);
+        }
+    }
+
+    /**
+     * Evicts all cached pages.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private Mono<Void> filterCached(ServerWebExchange exchange, WebFilterChain chain) {
+        return getActiveTheme()
+            .flatMap(theme -> filterCached(exchange, chain, cacheKey(theme, exchange)));
+    }
+
+    private Mono<Void> filterCached(ServerWebExchange exchange, WebFilterChain chain,
+        String key) {
+        var page = cache.get(key);
+        if (page != null) {
+            return write(exchange.getResponse(), page);
+        }
+        var renderedGeneration = generation.get();
+        var response = new CachingResponse(exchange.getResponse(), rendered -> {
+            cache.put(key, rendered);
+            if (generation.get() != renderedGeneration) {
+                // evicted while rendering
+                cache.invalidate(key);
+            }
+        });
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Mono<String> getActiveTheme() {
+        var theme = activeTheme.get();
+        if (theme != null) {
+            return Mono.just(theme);
+        }
+        return client.fetch(ConfigMap.class, SystemConfigUtils.SYSTEM_CONFIG_NAME)
+            .mapNotNull(SystemConfigUtils::activeTheme)
+            .defaultIfEmpty("")
+            .doOnNext(activeTheme::set);
+    }
+
+    private Mono<Boolean> isEnabled() {
+        return settingFetcher.get("base")
+            .map(setting -> setting.path("pageCache").asBoolean(false))
+            .defaultIfEmpty(false);
+    }
+
+    private static Mono<Boolean> isAnonymous() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getName)
+            .map(AnonymousUserConst::isAnonymousUser)
+            .defaultIfEmpty(false);
+    }
+
+    private static boolean hasCacheableQuery(ServerWebExchange exchange) {
+        return CACHEABLE_QUERY_PARAMS.containsAll(exchange.getRequest().getQueryParams().keySet());
+    }
+
+    private static String cacheKey(String theme, ServerWebExchange exchange) {
+        var request = exchange.getRequest();
+        return theme + ':' + request.getPath().pathWithinApplication().value()
+            + '?' + request.getQueryParams().getFirst("tag")
+            + '#' + exchange.getLocaleContext().getLocale();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedPage page) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(page.contentType());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory()
+            .wrap(page.body())));
+    }
+
+    record CachedPage(MediaType contentType, byte[] body) {
+    }
+
+    /**
+     * Captures the body of a successful HTML response that sets no cookies.
+     */
+    static class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final Consumer<CachedPage> onRendered;
+
+        CachingResponse(ServerHttpResponse delegate, Consumer<CachedPage> onRendered) {
+            super(delegate);
+            this.onRendered = onRendered;
+        }
+
+        @Override
+        @NonNull
+        public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+            var contentType = getHeaders().getContentType();
+            if (!isCacheable(contentType)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                .flatMap(buffer -> {
+                    var bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    onRendered.accept(new CachedPage(contentType, bytes));
+                    return super.writeWith(Mono.fromSupplier(() -> bufferFactory().wrap(bytes)));
+                });
+        }
+
+        private boolean isCacheable(MediaType contentType) {
+            var status = getStatusCode();
+            return (status == null || status.value() == HttpStatus.OK.value())
+                && contentType != null && MediaType.TEXT_HTML.isCompatibleWith(contentType)
+                && !getHeaders().containsKey(HttpHeaders.SET_COOKIE)
+                && getCookies().isEmpty();
+        }
+    }
+}
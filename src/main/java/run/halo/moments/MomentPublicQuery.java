@@ -15,6 +15,7 @@ import java.time.Instant;
 import org.apache.commons.lang3.StringUtils;
 import org.springdoc.core.fn.builders.operation.Builder;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 import run.halo.app.extension.ListOptions;
@@ -23,6 +24,7 @@ import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.router.IListRequest;
 import run.halo.app.extension.router.SortableRequest;
 import run.halo.app.extension.router.selector.FieldSelector;
+import run.halo.moments.util.SortUtils;
 
 /**
  * Query parameters for moment public APIs.
@@ -47,6 +49,12 @@ public class MomentPublicQuery extends SortableRequest {
         return StringUtils.defaultIfBlank(queryParams.getFirst("tag"), null);
     }
 
+    @Nullable
+    @Schema(description = "Moments with media of the given type.")
+    public Moment.MomentMediaType getMediaType() {
+        return Moment.MomentMediaType.parse(queryParams.getFirst("mediaType"));
+    }
+
     @Schema
     public Instant getStartDate() {
         String startDate = queryParams.getFirst("startDate");
@@ -59,6 +67,23 @@ public class MomentPublicQuery extends SortableRequest {
         return convertInstantOrNull(endDate);
     }
 
+    @Nullable
+    @Schema(description = "Cursor for keyset pagination.")
+    public MomentCursor getCursor() {
+        return MomentCursor.decode(queryParams.getFirst(MomentCursor.PARAM_NAME));
+    }
+
+    public MomentFields getFields() {
+        return MomentFields.from(queryParams.get(MomentFields.PARAM_NAME));
+    }
+
+    /**
+     * Whether the cursor parameter is present, an empty cursor requests the first page.
+     */
+    public boolean isCursorPaging() {
+        return queryParams.containsKey(MomentCursor.PARAM_NAME);
+    }
+
     /**
      * Build {@link ListOptions} from query params.
      *
@@ -74,12 +99,22 @@ public class MomentPublicQuery extends SortableRequest {
         if (StringUtils.isNotBlank(getTag())) {
             query = and(query, equal("spec.tags", getTag()));
         }
+        if (getMediaType() != null) {
+            query = and(query, equal(Moment.MEDIUM_TYPE_INDEX_NAME, getMediaType().name()));
+        }
 
         if (getStartDate() != null) {
-            query = and(query, greaterThanOrEqual("spec.releaseTime", getStartDate().toString()));
+            query = and(query, greaterThanOrEqual(Moment.RELEASE_TIME_KEY_INDEX_NAME,
+                Moment.releaseTimeKey(getStartDate())));
         }
         if (getEndDate() != null) {
-            query = and(query, lessThanOrEqual("spec.releaseTime", getEndDate().toString()));
+            query = and(query, lessThanOrEqual(Moment.RELEASE_TIME_KEY_INDEX_NAME,
+                Moment.releaseTimeKey(getEndDate())));
+        }
+
+        var cursor = getCursor();
+        if (cursor != null) {
+            query = and(query, cursor.toQuery());
         }
 
         if (listOptions.getFieldSelector() != null) {
@@ -90,9 +125,13 @@ public class MomentPublicQuery extends SortableRequest {
     }
 
     public PageRequest toPageRequest() {
-        var sort = getSort();
+        if (isCursorPaging()) {
+            // seek from the cursor instead of skipping previous pages
+            return PageRequestImpl.of(1, getSize(), MomentCursor.SORT);
+        }
+        var sort = SortUtils.releaseTimeByKey(getSort());
         if (sort.isUnsorted()) {
-            sort = Sort.by("spec.releaseTime").descending();
+            sort = Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME).descending();
         }
         return PageRequestImpl.of(getPage(), getSize(), sort);
     }
@@ -116,6 +155,12 @@ public class MomentPublicQuery extends SortableRequest {
                 .description("Moment tag.")
                 .implementation(String.class)
                 .required(false))
+            .parameter(parameterBuilder()
+                .in(ParameterIn.QUERY)
+                .name("mediaType")
+                .description("Moments with media of the given type.")
+                .implementation(Moment.MomentMediaType.class)
+                .required(false))
             .parameter(parameterBuilder()
                 .in(ParameterIn.QUERY)
                 .name("startDate")
@@ -128,7 +173,17 @@ public class MomentPublicQuery extends SortableRequest {
                 .implementation(Instant.class)
                 .description("Moment end date.")
                 .required(false))
+            .parameter(parameterBuilder()
+                .in(ParameterIn.QUERY)
+                .name(MomentCursor.PARAM_NAME)
+                .description("Cursor for keyset pagination ordered by release time. "
+                    + "Pass an empty value for the first page and the nextCursor of the "
+                    + "response for the following pages. The page and sort parameters are "
+                    + "ignored when present.")
+                .implementation(String.class)
+                .required(false))
         ;
+        MomentFields.buildParameters(builder);
     }
 
 }
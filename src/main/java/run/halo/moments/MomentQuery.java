@@ -6,16 +6,20 @@ import static run.halo.app.extension.index.query.QueryFactory.and;
 import static run.halo.app.extension.index.query.QueryFactory.contains;
 import static run.halo.app.extension.index.query.QueryFactory.equal;
 import static run.halo.app.extension.index.query.QueryFactory.greaterThanOrEqual;
+import static run.halo.app.extension.index.query.QueryFactory.in;
 import static run.halo.app.extension.index.query.QueryFactory.lessThanOrEqual;
+import static run.halo.app.extension.index.query.QueryFactory.or;
 import static run.halo.app.extension.router.QueryParamBuildUtil.sortParameter;
 import static run.halo.app.extension.router.selector.SelectorUtil.labelAndFieldSelectorToListOptions;
 
 import java.time.Instant;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springdoc.core.fn.builders.operation.Builder;
 import org.springframework.data.domain.Sort;
 import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -24,9 +28,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.PageRequest;
 import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.index.query.Query;
 import run.halo.app.extension.router.IListRequest;
 import run.halo.app.extension.router.SortableRequest;
 import run.halo.app.extension.router.selector.FieldSelector;
+import run.halo.moments.util.SortUtils;
 
 /**
  * A query object for {@link Moment} list.
@@ -56,6 +62,15 @@ public class MomentQuery extends SortableRequest {
         return StringUtils.defaultIfBlank(queryParams.getFirst("keyword"), null);
     }
 
+    /**
+     * Whether the results are ordered by keyword relevance, that is a keyword is given without
+     * an explicit sort or cursor.
+     */
+    public boolean isRankedByKeyword() {
+        return StringUtils.isNotBlank(getKeyword()) && getSort().isUnsorted()
+            && !isCursorPaging();
+    }
+
     @Schema(description = "Owner name.")
     public String getOwnerName() {
         if (StringUtils.isNotBlank(username)) {
@@ -76,6 +91,12 @@ public class MomentQuery extends SortableRequest {
         return Moment.MomentVisible.from(visible);
     }
 
+    @Nullable
+    @Schema(description = "Moments with media of the given type.")
+    public Moment.MomentMediaType getMediaType() {
+        return Moment.MomentMediaType.parse(queryParams.getFirst("mediaType"));
+    }
+
     @Schema
     public Instant getStartDate() {
         String startDate = queryParams.getFirst("startDate");
@@ -88,12 +109,58 @@ public class MomentQuery extends SortableRequest {
         return convertInstantOrNull(endDate);
     }
 
+    @Nullable
+    @Schema(description = "Cursor for keyset pagination.")
+    public MomentCursor getCursor() {
+        return MomentCursor.decode(queryParams.getFirst(MomentCursor.PARAM_NAME));
+    }
+
+    public MomentFields getFields() {
+        return MomentFields.from(queryParams.get(MomentFields.PARAM_NAME));
+    }
+
+    /**
+     * Whether the cursor parameter is present, an empty cursor requests the first page.
+     */
+    public boolean isCursorPaging() {
+        return queryParams.containsKey(MomentCursor.PARAM_NAME);
+    }
+
     /**
      * Build {@link ListOptions} from query params.
      *
      * @return a list options.
      */
     public ListOptions toListOptions() {
+        return toListOptions(List.of());
+    }
+
+    /**
+     * Build {@link ListOptions} from query params, where the keyword matches the owner or one
+     * of the given moments.
+     *
+     * @param keywordMatches names of the moments whose content or tags match the keyword
+     * @return a list options.
+     */
+    public ListOptions toListOptions(List<String> keywordMatches) {
+        if (StringUtils.isBlank(getKeyword())) {
+            return toListOptions((Query) null);
+        }
+        var keywordQuery = contains("spec.owner", getKeyword());
+        if (!CollectionUtils.isEmpty(keywordMatches)) {
+            keywordQuery = or(keywordQuery, in("metadata.name", keywordMatches));
+        }
+        return toListOptions(keywordQuery);
+    }
+
+    /**
+     * Build {@link ListOptions} from query params, matching the given query instead of the
+     * keyword.
+     *
+     * @param keywordQuery query replacing the keyword, null to match any moment
+     * @return a list options.
+     */
+    public ListOptions toListOptions(@Nullable Query keywordQuery) {
         var listOptions =
             labelAndFieldSelectorToListOptions(getLabelSelector(), getFieldSelector());
         var query = all();
@@ -103,6 +170,9 @@ public class MomentQuery extends SortableRequest {
         if (StringUtils.isNotBlank(getTag())) {
             query = and(query, equal("spec.tags", getTag()));
         }
+        if (getMediaType() != null) {
+            query = and(query, equal(Moment.MEDIUM_TYPE_INDEX_NAME, getMediaType().name()));
+        }
         if (getVisible() != null) {
             query = and(query, equal("spec.visible", getVisible().name()));
         }
@@ -112,26 +182,37 @@ public class MomentQuery extends SortableRequest {
         }
 
         if (getStartDate() != null) {
-            query = and(query, greaterThanOrEqual("spec.releaseTime", getStartDate().toString()));
+            query = and(query, greaterThanOrEqual(Moment.RELEASE_TIME_KEY_INDEX_NAME,
+                Moment.releaseTimeKey(getStartDate())));
         }
         if (getEndDate() != null) {
-            query = and(query, lessThanOrEqual("spec.releaseTime", getEndDate().toString()));
+            query = and(query, lessThanOrEqual(Moment.RELEASE_TIME_KEY_INDEX_NAME,
+                Moment.releaseTimeKey(getEndDate())));
+        }
+
+        var cursor = getCursor();
+        if (cursor != null) {
+            query = and(query, cursor.toQuery());
         }
 
         if (listOptions.getFieldSelector() != null) {
             query = and(query, listOptions.getFieldSelector().query());
         }
-        if (StringUtils.isNotBlank(getKeyword())) {
-            query = and(query, contains("spec.owner", getKeyword()));
+        if (keywordQuery != null) {
+            query = and(query, keywordQuery);
         }
         listOptions.setFieldSelector(FieldSelector.of(query));
         return listOptions;
     }
 
     public PageRequest toPageRequest() {
-        var sort = getSort();
+        if (isCursorPaging()) {
+            // seek from the cursor instead of skipping previous pages
+            return PageRequestImpl.of(1, getSize(), MomentCursor.SORT);
+        }
+        var sort = SortUtils.releaseTimeByKey(getSort());
         if (sort.isUnsorted()) {
-            sort = Sort.by("spec.releaseTime").descending();
+            sort = Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME).descending();
         }
         return PageRequestImpl.of(getPage(), getSize(), sort);
     }
@@ -155,7 +236,8 @@ public class MomentQuery extends SortableRequest {
             .parameter(parameterBuilder()
                 .in(ParameterIn.QUERY)
                 .name("keyword")
-                .description("Moments filtered by keyword.")
+                .description("Moments filtered by keyword, matching the owner name or the "
+                    + "content and tags. Results are ordered by relevance unless sorted.")
                 .implementation(String.class)
                 .required(false))
             .parameter(parameterBuilder()
@@ -170,6 +252,12 @@ public class MomentQuery extends SortableRequest {
                 .description("Moment tag.")
                 .implementation(String.class)
                 .required(false))
+            .parameter(parameterBuilder()
+                .in(ParameterIn.QUERY)
+                .name("mediaType")
+                .description("Moments with media of the given type.")
+                .implementation(Moment.MomentMediaType.class)
+                .required(false))
             .parameter(parameterBuilder()
                 .in(ParameterIn.QUERY)
                 .name("visible")
@@ -194,7 +282,17 @@ public class MomentQuery extends SortableRequest {
                 .description("Moment approved.")
                 .implementation(Boolean.class)
                 .required(false))
+            .parameter(parameterBuilder()
+                .in(ParameterIn.QUERY)
+                .name(MomentCursor.PARAM_NAME)
+                .description("Cursor for keyset pagination ordered by release time. "
+                    + "Pass an empty value for the first page and the nextCursor of the "
+                    + "response for the following pages. The page and sort parameters are "
+                    + "ignored when present.")
+                .implementation(String.class)
+                .required(false))
         ;
+        MomentFields.buildParameters(builder);
     }
 
 }
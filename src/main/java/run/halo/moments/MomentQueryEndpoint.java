@@ -2,6 +2,7 @@ package run.halo.moments;
 
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -15,6 +16,8 @@ import run.halo.app.extension.ListResult;
 import run.halo.moments.exception.NotFoundException;
 import run.halo.moments.finders.MomentFinder;
 import run.halo.moments.finders.MomentPublicQueryService;
+import run.halo.moments.vo.MomentArchiveVo;
+import run.halo.moments.vo.MomentMediaVo;
 import run.halo.moments.vo.MomentVo;
 
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
@@ -47,6 +50,19 @@ public class MomentQueryEndpoint implements CustomEndpoint {
                     MomentPublicQuery.buildParameters(builder);
                 }
             )
+            .GET("moments/-/stream", this::streamMoments,
+                builder -> {
+                    builder.operationId("streamMoments")
+                        .description("Streams moments as NDJSON, or as server-sent events if "
+                            + "text/event-stream is accepted. Each moment is written as soon as "
+                            + "it is ready.")
+                        .tag(tag)
+                        .response(responseBuilder()
+                            .implementationArray(MomentVo.class)
+                        );
+                    MomentPublicQuery.buildParameters(builder);
+                }
+            )
             .GET("moments/{name}", this::getMomentByName,
                 builder -> builder.operationId("queryMomentByName")
                     .description("Gets a moment by name.")
@@ -61,25 +77,101 @@ public class MomentQueryEndpoint implements CustomEndpoint {
                         .implementation(MomentVo.class)
                     )
             )
+            .GET("archives", this::listArchives,
+                builder -> builder.operationId("queryArchives")
+                    .description("Lists moment counts by year and month of release time.")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementationArray(MomentArchiveVo.class)
+                    )
+            )
+            .GET("medium", this::listMedia,
+                builder -> builder.operationId("queryMedium")
+                    .description("Lists media items of moments, latest moment first. Pages "
+                        + "over media items instead of moments.")
+                    .tag(tag)
+                    .parameter(parameterBuilder()
+                        .in(ParameterIn.QUERY)
+                        .name("page")
+                        .description("Page number, starting from 1.")
+                        .implementation(Integer.class)
+                        .required(false))
+                    .parameter(parameterBuilder()
+                        .in(ParameterIn.QUERY)
+                        .name("size")
+                        .description("Size of one page, between 1 and 100.")
+                        .implementation(Integer.class)
+                        .required(false))
+                    .parameter(parameterBuilder()
+                        .in(ParameterIn.QUERY)
+                        .name("mediaType")
+                        .description("Media type, all types if absent.")
+                        .implementation(Moment.MomentMediaType.class)
+                        .required(false))
+                    .response(responseBuilder()
+                        .implementation(ListResult.generateGenericClass(MomentMediaVo.class))
+                    )
+            )
             .build();
     }
 
+    private Mono<ServerResponse> listMedia(ServerRequest request) {
+        var page = request.queryParam("page")
+            .map(value -> NumberUtils.toInt(value, 1))
+            .orElse(null);
+        var size = request.queryParam("size")
+            .map(value -> NumberUtils.toInt(value, 10))
+            .orElse(null);
+        return momentFinder.listMedia(page, size, request.queryParam("mediaType").orElse(null))
+            .flatMap(result -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(result)
+            );
+    }
+
+    private Mono<ServerResponse> listArchives(ServerRequest request) {
+        return momentFinder.listArchives()
+            .collectList()
+            .flatMap(archives -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(archives)
+            );
+    }
 
     private Mono<ServerResponse> getMomentByName(ServerRequest request) {
         final var name = request.pathVariable("name");
-        return momentFinder.get(name)
+        return momentPublicQueryService.getEnriched(name)
             .switchIfEmpty(Mono.error(() -> new NotFoundException("Moment not found")))
-            .flatMap(moment -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(moment)
-            );
+            .flatMap(enriched -> MomentETags.okOrNotModified(request, MomentETags.of(enriched),
+                () -> momentPublicQueryService.toMomentVo(enriched, MomentFields.ALL)));
     }
 
     private Mono<ServerResponse> listMoments(ServerRequest request) {
         MomentPublicQuery query = new MomentPublicQuery(request.exchange());
-        return momentPublicQueryService.list(query.toListOptions(), query.toPageRequest())
-            .flatMap(result -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(result)
-            );
+        var fields = query.getFields();
+        return momentPublicQueryService.listEnriched(query.toListOptions(),
+                query.toPageRequest(), fields)
+            .flatMap(enriched -> MomentETags.okOrNotModified(request,
+                MomentETags.ofEnrichedMoments(enriched, fields, query.isCursorPaging()), () -> {
+                    ListResult<MomentVo> result = new ListResult<>(enriched.getPage(),
+                        enriched.getSize(), enriched.getTotal(), enriched.getItems().stream()
+                        .map(item -> momentPublicQueryService.toMomentVo(item, fields))
+                        .toList());
+                    return query.isCursorPaging()
+                        ? CursorListResult.of(result, momentVo -> MomentCursor.of(
+                        momentVo.getSpec(), momentVo.getMetadata().getName()))
+                        : result;
+                }));
+    }
+
+    private Mono<ServerResponse> streamMoments(ServerRequest request) {
+        MomentPublicQuery query = new MomentPublicQuery(request.exchange());
+        var momentVos = momentPublicQueryService.stream(query.toListOptions(),
+            query.toPageRequest(), query.getFields());
+        var acceptsEventStream = request.headers().accept().stream()
+            .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+        var contentType =
+            acceptsEventStream ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok().contentType(contentType)
+            .body(momentVos, MomentVo.class);
     }
 
     @Override
@@ -1,16 +1,28 @@
 package run.halo.moments;
 
+import static run.halo.app.extension.index.query.QueryFactory.and;
 import static run.halo.app.extension.index.query.QueryFactory.equal;
+import static run.halo.app.extension.index.query.QueryFactory.isNull;
+import static run.halo.app.extension.index.query.QueryFactory.or;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import run.halo.app.core.extension.notification.Subscription;
 import run.halo.app.extension.DefaultExtensionMatcher;
 import run.halo.app.extension.ExtensionClient;
 import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.MetadataUtil;
 import run.halo.app.extension.controller.Controller;
 import run.halo.app.extension.controller.ControllerBuilder;
 import run.halo.app.extension.controller.Reconciler;
@@ -18,56 +30,195 @@ import run.halo.app.extension.router.selector.FieldSelector;
 import run.halo.app.notification.NotificationCenter;
 import run.halo.moments.event.MomentDeletedEvent;
 import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.search.DocumentConverter;
+import run.halo.moments.search.MomentSearchBatcher;
 
 /**
- * {@link Reconciler} for {@link Moment}.
+ * <p>{@link Reconciler} for {@link Moment}, the only controller watching moments.</p>
+ * <p>A pass fetches the moment once and runs the ordered stages finalizers, release time,
+ * approval, subscription, search and indexes on that copy. The moment is persisted at most once after
+ * all stages, and the side effects collected by the stages run after it is persisted. The
+ * time spent in each stage is recorded as {@code moments.reconcile.stage} tagged with the
+ * stage name, persisting as stage {@code persist}.</p>
+ * <p>A pass that changes neither spec, status nor metadata, for example the one triggered by
+ * its own previous write, neither writes nor publishes events. Applied and skipped writes are
+ * counted as {@code moments.reconcile.writes} tagged with the result.</p>
  *
  * @author guqing
  * @since 1.1.0
  */
 @Component
-@RequiredArgsConstructor
 public class MomentReconciler implements Reconciler<Reconciler.Request> {
 
     private static final String FINALIZER = "moment-protection";
+
+    private static final String SEARCH_FINALIZER = "moment-search-protection";
+
+    /**
+     * Added to old data by the former tag reconciler, only removed to let them be deleted.
+     */
+    private static final String LEGACY_TAG_FINALIZER = "tag-moment-protection";
+
     private final ExtensionClient client;
     private final NotificationCenter notificationCenter;
     private final ApplicationEventPublisher eventPublisher;
+    private final MomentSearchBatcher searchBatcher;
+
+    private final List<Stage> stages;
+
+    private final Timer persistTimer;
+
+    private final Counter appliedCounter;
+
+    private final Counter skippedCounter;
+
+    public MomentReconciler(ExtensionClient client, NotificationCenter notificationCenter,
+        ApplicationEventPublisher eventPublisher, MomentSearchBatcher searchBatcher,
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.client = client;
+        this.notificationCenter = notificationCenter;
+        this.eventPublisher = eventPublisher;
+        this.searchBatcher = searchBatcher;
+        var registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.stages = List.of(
+            new Stage(stageTimer("finalizers", registry), this::reconcileFinalizers),
+            new Stage(stageTimer("releaseTime", registry), this::reconcileReleaseTime),
+            new Stage(stageTimer("approval", registry), this::reconcileApproval),
+            new Stage(stageTimer("subscription", registry), this::reconcileSubscription),
+            new Stage(stageTimer("search", registry), this::reconcileSearchDocument),
+            new Stage(stageTimer("indexes", registry), this::reconcileIndexes)
+        );
+        this.persistTimer = stageTimer("persist", registry);
+        this.appliedCounter = writeCounter("applied", registry);
+        this.skippedCounter = writeCounter("skipped", registry);
+    }
 
     @Override
     public Result reconcile(Request request) {
         client.fetch(Moment.class, request.name()).ifPresent(moment -> {
-            if (ExtensionUtil.isDeleted(moment)) {
-                if (ExtensionUtil.removeFinalizers(moment.getMetadata(), Set.of(FINALIZER))) {
-                    client.update(moment);
-                    eventPublisher.publishEvent(new MomentDeletedEvent(this, request.name()));
+            var pass = new Pass(moment);
+            stages.forEach(stage -> stage.timer().record(() -> stage.action().accept(pass)));
+            if (pass.changed) {
+                if (!pass.deleted) {
+                    markObserved(moment);
                 }
-                return;
-            }
-            if (ExtensionUtil.addFinalizers(moment.getMetadata(), Set.of(FINALIZER))) {
-                // auto subscribe to new comment on moment
-                createCommentSubscriptionForMoment(moment);
-            }
-            var status = moment.getStatus();
-            if (status == null) {
-                status = new Moment.Status();
-                moment.setStatus(status);
-            }
-            status.setObservedVersion(moment.getMetadata().getVersion() + 1);
-            // add approved marks to the old data by default.
-            if (moment.getSpec().getApproved() == null) {
-                moment.getSpec().setApproved(true);
+                persistTimer.record(() -> client.update(moment));
+                appliedCounter.increment();
+                pass.afterPersist.forEach(Runnable::run);
+            } else {
+                // nothing changed since the last pass, neither write nor notify
+                skippedCounter.increment();
             }
-            if (moment.getSpec().getApproved() && moment.getSpec().getApprovedTime() == null) {
-                moment.getSpec().setApprovedTime(Instant.now());
-            }
-            client.update(moment);
-
-            eventPublisher.publishEvent(new MomentUpdatedEvent(this, request.name()));
         });
         return Result.doNotRetry();
     }
 
+    private void reconcileFinalizers(Pass pass) {
+        var metadata = pass.moment.getMetadata();
+        if (pass.deleted) {
+            Set.of(FINALIZER, SEARCH_FINALIZER, LEGACY_TAG_FINALIZER).forEach(finalizer -> {
+                if (ExtensionUtil.removeFinalizers(metadata, Set.of(finalizer))) {
+                    pass.removedFinalizers.add(finalizer);
+                    pass.changed = true;
+                }
+            });
+            return;
+        }
+        pass.subscriptionRequired = ExtensionUtil.addFinalizers(metadata, Set.of(FINALIZER));
+        if (ExtensionUtil.addFinalizers(metadata, Set.of(SEARCH_FINALIZER))
+            || pass.subscriptionRequired) {
+            pass.changed = true;
+        }
+    }
+
+    /**
+     * Fills the release time of moments created without one, so that they are covered by
+     * range queries, sorting and cursors on {@link Moment#RELEASE_TIME_KEY_INDEX_NAME}.
+     */
+    private void reconcileReleaseTime(Pass pass) {
+        var moment = pass.moment;
+        if (pass.deleted || moment.getSpec().getReleaseTime() != null) {
+            return;
+        }
+        moment.getSpec().setReleaseTime(moment.getMetadata().getCreationTimestamp());
+        pass.changed = true;
+    }
+
+    private void reconcileApproval(Pass pass) {
+        if (pass.deleted) {
+            return;
+        }
+        var moment = pass.moment;
+        var status = moment.getStatus();
+        if (status == null || status.getObservedVersion() < moment.getMetadata().getVersion()) {
+            // changed since the last pass
+            pass.changed = true;
+        }
+        // add approved marks to the old data before 1.16.0 by default.
+        if (moment.getSpec().getApproved() == null) {
+            moment.getSpec().setApproved(true);
+            moment.getSpec().setApprovedTime(moment.getMetadata().getCreationTimestamp());
+            pass.changed = true;
+        }
+        if (moment.getSpec().getApproved() && moment.getSpec().getApprovedTime() == null) {
+            moment.getSpec().setApprovedTime(Instant.now());
+            pass.changed = true;
+        }
+    }
+
+    /**
+     * Sets the observed version to the version the moment will have once persisted.
+     */
+    private static void markObserved(Moment moment) {
+        var status = moment.getStatus();
+        if (status == null) {
+            status = new Moment.Status();
+            moment.setStatus(status);
+        }
+        status.setObservedVersion(moment.getMetadata().getVersion() + 1);
+    }
+
+    private void reconcileSubscription(Pass pass) {
+        if (pass.subscriptionRequired) {
+            // auto subscribe to new comment on moment
+            createCommentSubscriptionForMoment(pass.moment);
+        }
+    }
+
+    private void reconcileSearchDocument(Pass pass) {
+        var moment = pass.moment;
+        if (pass.deleted) {
+            if (pass.removedFinalizers.contains(SEARCH_FINALIZER)) {
+                pass.afterPersist.add(() -> searchBatcher.delete(moment));
+            }
+            return;
+        }
+        if (DocumentConverter.requiresSearchSync(moment)) {
+            // recorded in the single write of this pass, the document is converted and
+            // published in batches once the moment is persisted
+            MetadataUtil.nullSafeAnnotations(moment).put(DocumentConverter.SEARCH_DIGEST_ANNO,
+                DocumentConverter.searchDigest(moment));
+            pass.changed = true;
+            pass.afterPersist.add(() -> searchBatcher.add(moment));
+        }
+    }
+
+    /**
+     * Notifies the in-memory indexes, such as the tag counts, of the change.
+     */
+    private void reconcileIndexes(Pass pass) {
+        var moment = pass.moment;
+        if (pass.deleted) {
+            if (pass.removedFinalizers.contains(FINALIZER)) {
+                pass.afterPersist.add(() -> eventPublisher.publishEvent(
+                    new MomentDeletedEvent(this, moment.getMetadata().getName())));
+            }
+            return;
+        }
+        pass.afterPersist.add(
+            () -> eventPublisher.publishEvent(new MomentUpdatedEvent(this, moment)));
+    }
+
     void createCommentSubscriptionForMoment(Moment moment) {
         var owner = moment.getSpec().getOwner();
         var interestReason = new Subscription.InterestReason();
@@ -78,6 +229,18 @@ public class MomentReconciler implements Reconciler<Reconciler.Request> {
         notificationCenter.subscribe(subscriber, interestReason).block();
     }
 
+    private static Timer stageTimer(String stage, MeterRegistry registry) {
+        return Timer.builder("moments.reconcile.stage")
+            .tag("stage", stage)
+            .register(registry);
+    }
+
+    private static Counter writeCounter(String result, MeterRegistry registry) {
+        return Counter.builder("moments.reconcile.writes")
+            .tag("result", result)
+            .register(registry);
+    }
+
     @Override
     public Controller setupWith(ControllerBuilder builder) {
         final var moment = new Moment();
@@ -85,11 +248,46 @@ public class MomentReconciler implements Reconciler<Reconciler.Request> {
             .extension(moment)
             .workerCount(5)
             .onAddMatcher(DefaultExtensionMatcher.builder(client, moment.groupVersionKind())
-                .fieldSelector(
-                    FieldSelector.of(equal(Moment.REQUIRE_SYNC_ON_STARTUP_INDEX_NAME, "true"))
-                )
+                .fieldSelector(FieldSelector.of(or(
+                    equal(Moment.REQUIRE_SYNC_ON_STARTUP_INDEX_NAME, "true"),
+                    equal(Moment.REQUIRE_SEARCH_SYNC_INDEX_NAME, "true"),
+                    // old data without an approval mark or a release time
+                    and(isNull("metadata.deletionTimestamp"), or(
+                        isNull("spec.approved"),
+                        isNull(Moment.RELEASE_TIME_KEY_INDEX_NAME)
+                    ))
+                )))
                 .build()
             )
             .build();
     }
+
+    record Stage(Timer timer, Consumer<Pass> action) {
+    }
+
+    /**
+     * State of one reconcile pass, shared by the stages.
+     */
+    static class Pass {
+
+        private final Moment moment;
+
+        private final boolean deleted;
+
+        private final Set<String> removedFinalizers = new HashSet<>();
+
+        private final List<Runnable> afterPersist = new ArrayList<>();
+
+        /**
+         * Whether the moment must be persisted.
+         */
+        private boolean changed;
+
+        private boolean subscriptionRequired;
+
+        Pass(Moment moment) {
+            this.moment = moment;
+            this.deleted = ExtensionUtil.isDeleted(moment);
+        }
+    }
 }
@@ -3,16 +3,20 @@ package run.halo.moments;
 import static run.halo.app.extension.index.IndexAttributeFactory.multiValueAttribute;
 import static run.halo.app.extension.index.IndexAttributeFactory.simpleAttribute;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.BooleanUtils;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import run.halo.app.extension.ExtensionUtil;
 import run.halo.app.extension.Scheme;
 import run.halo.app.extension.SchemeManager;
 import run.halo.app.extension.index.IndexSpec;
 import run.halo.app.plugin.BasePlugin;
 import run.halo.app.plugin.PluginContext;
+import run.halo.moments.search.DocumentConverter;
 
 @Component
 public class MomentsPlugin extends BasePlugin {
@@ -48,6 +52,38 @@ public class MomentsPlugin extends BasePlugin {
                     return releaseTime == null ? null : releaseTime.toString();
                 }))
             );
+            indexSpecs.add(new IndexSpec()
+                .setName(Moment.RELEASE_TIME_KEY_INDEX_NAME)
+                .setIndexFunc(simpleAttribute(Moment.class, moment -> {
+                    var releaseTime = moment.getSpec().getReleaseTime();
+                    return releaseTime == null ? null : Moment.releaseTimeKey(releaseTime);
+                }))
+            );
+            indexSpecs.add(new IndexSpec()
+                .setName(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME)
+                .setIndexFunc(simpleAttribute(Moment.class, moment -> {
+                    var releaseTime = moment.getSpec().getReleaseTime();
+                    if (releaseTime == null || ExtensionUtil.isDeleted(moment)
+                        || !moment.isApproved() || !moment.isPubliclyVisible()) {
+                        return null;
+                    }
+                    return Moment.releaseTimeKey(releaseTime);
+                }))
+            );
+            indexSpecs.add(new IndexSpec()
+                .setName(Moment.MEDIUM_TYPE_INDEX_NAME)
+                .setIndexFunc(multiValueAttribute(Moment.class, moment -> {
+                    var content = moment.getSpec().getContent();
+                    if (content == null || content.getMedium() == null) {
+                        return Set.of();
+                    }
+                    return content.getMedium().stream()
+                        .map(Moment.MomentMedia::getType)
+                        .filter(Objects::nonNull)
+                        .map(Enum::name)
+                        .collect(Collectors.toSet());
+                }))
+            );
 
             indexSpecs.add(new IndexSpec()
                 .setName("spec.visible")
@@ -76,6 +112,16 @@ public class MomentsPlugin extends BasePlugin {
                     // don't care about the false case
                     return null;
                 })));
+            indexSpecs.add(new IndexSpec()
+                .setName(Moment.REQUIRE_SEARCH_SYNC_INDEX_NAME)
+                .setIndexFunc(simpleAttribute(Moment.class, moment -> {
+                    if (ExtensionUtil.isDeleted(moment)
+                        || DocumentConverter.requiresSearchSync(moment)) {
+                        return BooleanUtils.TRUE;
+                    }
+                    // don't care about the false case
+                    return null;
+                })));
         });
         eventPublisher.publishEvent(new SchemeRegistered(this));
     }
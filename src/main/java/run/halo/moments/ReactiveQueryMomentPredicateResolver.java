@@ -14,4 +14,11 @@ public interface ReactiveQueryMomentPredicateResolver {
     Mono<Predicate<Moment>> getPredicate();
 
     Mono<ListOptions> getListOptions();
+
+    /**
+     * Resolves the name of the current user.
+     *
+     * @return the name of the current user, empty for anonymous visitors
+     */
+    Mono<String> currentUserName();
 }
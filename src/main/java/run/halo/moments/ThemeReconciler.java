@@ -0,0 +1,39 @@
+package run.halo.moments;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.Theme;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.moments.event.ThemeUpdatedEvent;
+
+/**
+ * Evicts the cached moment pages whenever a {@link Theme} is installed, upgraded or removed,
+ * and announces the change to other caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThemeReconciler implements Reconciler<Reconciler.Request> {
+
+    private final MomentPageCacheFilter momentPageCacheFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Result reconcile(Request request) {
+        momentPageCacheFilter.invalidateAll();
+        eventPublisher.publishEvent(new ThemeUpdatedEvent(this, request.name()));
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Theme())
+            // nothing is cached on startup
+            .syncAllOnStart(false)
+            .build();
+    }
+}
@@ -0,0 +1,40 @@
+package run.halo.moments;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.User;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.moments.event.ContributorUpdatedEvent;
+import run.halo.moments.service.ContributorService;
+
+/**
+ * Watches {@link User} changes to keep the cached contributors of moments and the items
+ * rendered from them up to date.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserReconciler implements Reconciler<Reconciler.Request> {
+
+    private final ContributorService contributorService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Result reconcile(Request request) {
+        contributorService.invalidate(request.name());
+        eventPublisher.publishEvent(new ContributorUpdatedEvent(this, request.name()));
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new User())
+            // nothing is cached on startup
+            .syncAllOnStart(false)
+            .build();
+    }
+}
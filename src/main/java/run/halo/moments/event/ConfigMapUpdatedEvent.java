@@ -0,0 +1,17 @@
+package run.halo.moments.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a config map changes, such as the system config holding the external URL.
+ */
+@Getter
+public class ConfigMapUpdatedEvent extends ApplicationEvent {
+    private final String configMapName;
+
+    public ConfigMapUpdatedEvent(Object source, String configMapName) {
+        super(source);
+        this.configMapName = configMapName;
+    }
+}
@@ -0,0 +1,17 @@
+package run.halo.moments.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a user who may own moments changes, for example their display name.
+ */
+@Getter
+public class ContributorUpdatedEvent extends ApplicationEvent {
+    private final String username;
+
+    public ContributorUpdatedEvent(Object source, String username) {
+        super(source);
+        this.username = username;
+    }
+}
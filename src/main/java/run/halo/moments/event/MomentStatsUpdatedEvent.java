@@ -0,0 +1,17 @@
+package run.halo.moments.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the stats of a moment change, for example after an upvote or a new comment.
+ */
+@Getter
+public class MomentStatsUpdatedEvent extends ApplicationEvent {
+    private final String momentName;
+
+    public MomentStatsUpdatedEvent(Object source, String momentName) {
+        super(source);
+        this.momentName = momentName;
+    }
+}
@@ -2,13 +2,20 @@ package run.halo.moments.event;
 
 import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
+import run.halo.moments.Moment;
 
 @Getter
 public class MomentUpdatedEvent extends ApplicationEvent {
     private final String momentName;
 
-    public MomentUpdatedEvent(Object source, String momentName) {
+    /**
+     * The reconciled moment.
+     */
+    private final Moment moment;
+
+    public MomentUpdatedEvent(Object source, Moment moment) {
         super(source);
-        this.momentName = momentName;
+        this.momentName = moment.getMetadata().getName();
+        this.moment = moment;
     }
 }
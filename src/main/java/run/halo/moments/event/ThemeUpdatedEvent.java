@@ -0,0 +1,17 @@
+package run.halo.moments.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a theme is installed, upgraded or removed.
+ */
+@Getter
+public class ThemeUpdatedEvent extends ApplicationEvent {
+    private final String themeName;
+
+    public ThemeUpdatedEvent(Object source, String themeName) {
+        super(source);
+        this.themeName = themeName;
+    }
+}
@@ -4,6 +4,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 import run.halo.moments.finders.impl.MomentFinderImpl.MomentQuery;
+import run.halo.moments.vo.MomentArchiveVo;
+import run.halo.moments.vo.MomentMediaVo;
 import run.halo.moments.vo.MomentTagVo;
 import run.halo.moments.vo.MomentVo;
 import java.util.Map;
@@ -52,5 +54,22 @@ public interface MomentFinder {
 
     Flux<MomentTagVo> listAllTags();
 
+    /**
+     * Lists the moment counts by year and month of release time, latest first.
+     *
+     * @return a flux of yearly archives with their monthly counts.
+     */
+    Flux<MomentArchiveVo> listArchives();
+
+    /**
+     * Lists the media items of moments by page, latest moment first.
+     *
+     * @param page page number.
+     * @param size page size, clamped to between 1 and 100.
+     * @param mediaType media type, null for all types, an unknown type is rejected.
+     * @return a mono of list result of media items.
+     */
+    Mono<ListResult<MomentMediaVo>> listMedia(Integer page, Integer size, String mediaType);
+
     Mono<ListResult<MomentVo>> listByTag(int pageNum, Integer pageSize, String tagName);
 }
@@ -1,11 +1,15 @@
 package run.halo.moments.finders;
 
 import jakarta.annotation.Nonnull;
+import java.util.List;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.PageRequest;
 import run.halo.moments.Moment;
+import run.halo.moments.MomentFields;
+import run.halo.moments.service.MomentEnricher;
 import run.halo.moments.vo.MomentVo;
 
 public interface MomentPublicQueryService {
@@ -19,5 +23,69 @@ public interface MomentPublicQueryService {
      */
     Mono<ListResult<MomentVo>> list(ListOptions listOptions, PageRequest page);
 
+    /**
+     * Lists public moments by the given list options and page request, only resolving and
+     * returning the requested fields.
+     *
+     * @param listOptions additional list options
+     * @param page page request must not be null
+     * @param fields requested fields
+     * @return a list of listed moment vo
+     */
+    Mono<ListResult<MomentVo>> list(ListOptions listOptions, PageRequest page,
+        MomentFields fields);
+
+    /**
+     * Lists public moments by the given list options and page request with their owners and
+     * stats resolved, without building the vos yet, e.g. to check an entity tag first.
+     *
+     * @param listOptions additional list options
+     * @param page page request must not be null
+     * @param fields requested fields
+     * @return a list of enriched moments
+     */
+    Mono<ListResult<MomentEnricher.EnrichedMoment>> listEnriched(ListOptions listOptions,
+        PageRequest page, MomentFields fields);
+
+    /**
+     * Gets the public moment of the given name with its owner and stats resolved.
+     *
+     * @param name moment name
+     * @return the enriched moment, or empty if it does not exist or is not visible
+     */
+    Mono<MomentEnricher.EnrichedMoment> getEnriched(String name);
+
+    /**
+     * Builds the vo of the given enriched moment, only including the requested fields.
+     */
+    MomentVo toMomentVo(MomentEnricher.EnrichedMoment enrichedMoment, MomentFields fields);
+
+    /**
+     * Streams public moments by the given list options and page request, emitting each moment
+     * vo as soon as it is enriched.
+     *
+     * @param listOptions additional list options
+     * @param page page request must not be null
+     * @param fields requested fields
+     * @return a flux of moment vo in page order
+     */
+    Flux<MomentVo> stream(ListOptions listOptions, PageRequest page, MomentFields fields);
+
     Mono<MomentVo> getMomentVo(@Nonnull Moment moment);
+
+    /**
+     * Converts the given moments to moment vos, resolving their owners in one batch.
+     *
+     * @param moments moments to convert
+     * @return moment vos in the same order as the given moments
+     */
+    Mono<List<MomentVo>> getMomentVos(@Nonnull List<Moment> moments);
+
+    /**
+     * Converts the given moments to moment vos with bounded concurrency.
+     *
+     * @param moments moments to convert
+     * @return moment vos in the same order as the given moments
+     */
+    Flux<MomentVo> getMomentVos(@Nonnull Flux<Moment> moments);
 }
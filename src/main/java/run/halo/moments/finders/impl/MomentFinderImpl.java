@@ -5,9 +5,14 @@ import static run.halo.app.extension.index.query.QueryFactory.and;
 import static run.halo.app.extension.index.query.QueryFactory.equal;
 
 import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.function.Function;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.ObjectUtils;
@@ -29,7 +34,13 @@ import run.halo.moments.Moment;
 import run.halo.moments.ReactiveQueryMomentPredicateResolver;
 import run.halo.moments.finders.MomentFinder;
 import run.halo.moments.finders.MomentPublicQueryService;
+import run.halo.moments.index.MomentArchiveIndex;
+import run.halo.moments.index.MomentMediaIndex;
+import run.halo.moments.index.MomentTagIndex;
 import run.halo.moments.util.SortUtils;
+import run.halo.moments.vo.MomentArchiveMonthVo;
+import run.halo.moments.vo.MomentArchiveVo;
+import run.halo.moments.vo.MomentMediaVo;
 import run.halo.moments.vo.MomentTagVo;
 import run.halo.moments.vo.MomentVo;
 
@@ -42,17 +53,25 @@ import run.halo.moments.vo.MomentVo;
 @Finder("momentFinder")
 @RequiredArgsConstructor
 public class MomentFinderImpl implements MomentFinder {
+    private static final int MAX_MEDIA_PAGE_SIZE = 100;
+
     private final ReactiveExtensionClient client;
 
     private final MomentPublicQueryService momentPublicQueryService;
 
     private final ReactiveQueryMomentPredicateResolver momentPredicateResolver;
 
+    private final MomentTagIndex momentTagIndex;
+
+    private final MomentArchiveIndex momentArchiveIndex;
+
+    private final MomentMediaIndex momentMediaIndex;
+
     @Override
     public Flux<MomentVo> listAll() {
         return momentPredicateResolver.getListOptions()
-            .flatMapMany(listOptions -> client.listAll(Moment.class, listOptions, defaultSort())
-                .concatMap(momentPublicQueryService::getMomentVo));
+            .flatMapMany(listOptions -> momentPublicQueryService.getMomentVos(
+                client.listAll(Moment.class, listOptions, defaultSort())));
     }
 
     @Override
@@ -72,7 +91,7 @@ public class MomentFinderImpl implements MomentFinder {
     }
 
     static Sort defaultSort() {
-        return Sort.by("spec.releaseTime").descending()
+        return Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME).descending()
             .and(ExtensionUtil.defaultSort());
     }
 
@@ -86,8 +105,8 @@ public class MomentFinderImpl implements MomentFinder {
                 );
                 return options;
             })
-            .flatMapMany(listOptions -> client.listAll(Moment.class, listOptions, defaultSort())
-                .concatMap(momentPublicQueryService::getMomentVo));
+            .flatMapMany(listOptions -> momentPublicQueryService.getMomentVos(
+                client.listAll(Moment.class, listOptions, defaultSort())));
     }
 
     @Override
@@ -99,39 +118,73 @@ public class MomentFinderImpl implements MomentFinder {
 
     @Override
     public Flux<MomentTagVo> listAllTags() {
-        return momentPredicateResolver.getListOptions()
-            .map(options -> {
-                options.setFieldSelector(
-                    options.getFieldSelector().andQuery(
-                        all("spec.tags")
-                    )
-                );
-                return options;
-            })
-            .flatMapMany(listOptions -> client.listAll(Moment.class, listOptions, defaultSort())
-                .flatMapIterable(moment -> {
-                    var tags = moment.getSpec().getTags();
-                    if (tags == null) {
-                        return List.of();
-                    }
-                    return tags.stream()
-                        .map(tag -> new MomentTagPair(tag, moment.getMetadata().getName()))
-                        .toList();
-                })
-                .groupBy(MomentTagPair::tagName)
-                .concatMap(groupedFlux -> groupedFlux.count()
-                    .defaultIfEmpty(0L)
-                    .map(count -> MomentTagVo.builder()
-                        .name(groupedFlux.key())
-                        .momentCount(count.intValue())
-                        .permalink("/moments?tag=" + UriUtils.encode(groupedFlux.key(),
-                            StandardCharsets.UTF_8))
-                        .build()
-                    )
-                ));
+        return momentPredicateResolver.currentUserName()
+            .flatMap(momentTagIndex::listVisibleTags)
+            .switchIfEmpty(Mono.defer(() -> momentTagIndex.listVisibleTags(null)))
+            .flatMapIterable(Function.identity())
+            .map(tag -> MomentTagVo.builder()
+                .name(tag.name())
+                .momentCount(tag.count())
+                .permalink("/moments?tag=" + UriUtils.encode(tag.name(), StandardCharsets.UTF_8))
+                .build()
+            );
     }
 
-    record MomentTagPair(String tagName, String momentName) {
+    @Override
+    public Flux<MomentArchiveVo> listArchives() {
+        return momentPredicateResolver.currentUserName()
+            .flatMap(momentArchiveIndex::countVisibleByMonth)
+            .switchIfEmpty(Mono.defer(() -> momentArchiveIndex.countVisibleByMonth(null)))
+            .flatMapIterable(MomentFinderImpl::toArchives);
+    }
+
+    @Override
+    public Mono<ListResult<MomentMediaVo>> listMedia(Integer page, Integer size,
+        String mediaType) {
+        var type = Moment.MomentMediaType.parse(mediaType);
+        var pageNum = pageNullSafe(page);
+        var pageSize = Math.min(Math.max(sizeNullSafe(size), 1), MAX_MEDIA_PAGE_SIZE);
+        return momentPredicateResolver.currentUserName()
+            .flatMap(username -> momentMediaIndex.listVisibleMedia(username, type, pageNum,
+                pageSize))
+            .switchIfEmpty(Mono.defer(
+                () -> momentMediaIndex.listVisibleMedia(null, type, pageNum, pageSize)))
+            .map(result -> {
+                var items = result.getItems().stream()
+                    .map(MomentFinderImpl::toMediaVo)
+                    .toList();
+                return new ListResult<>(result.getPage(), result.getSize(), result.getTotal(),
+                    items);
+            });
+    }
+
+    static MomentMediaVo toMediaVo(MomentMediaIndex.MediaItem item) {
+        return MomentMediaVo.builder()
+            .momentName(item.momentName())
+            .releaseTime(item.releaseTime())
+            .type(item.media().getType())
+            .url(item.media().getUrl())
+            .originType(item.media().getOriginType())
+            .build();
+    }
+
+    static List<MomentArchiveVo> toArchives(NavigableMap<YearMonth, Integer> monthCounts) {
+        var months = new LinkedHashMap<Integer, List<MomentArchiveMonthVo>>();
+        monthCounts.forEach((month, count) -> months
+            .computeIfAbsent(month.getYear(), year -> new ArrayList<>())
+            .add(MomentArchiveMonthVo.builder()
+                .month(month.getMonthValue())
+                .momentCount(count)
+                .build()));
+        return months.entrySet().stream()
+            .map(entry -> MomentArchiveVo.builder()
+                .year(entry.getKey())
+                .momentCount(entry.getValue().stream()
+                    .mapToInt(MomentArchiveMonthVo::getMomentCount)
+                    .sum())
+                .months(entry.getValue())
+                .build())
+            .toList();
     }
 
     @Override
@@ -161,6 +214,7 @@ public class MomentFinderImpl implements MomentFinder {
         private Integer size;
         private String tagName;
         private String owner;
+        private Moment.MomentMediaType mediaType;
         private List<String> sort;
 
         public ListOptions toListOptions() {
@@ -171,12 +225,16 @@ public class MomentFinderImpl implements MomentFinder {
             if (StringUtils.isNotBlank(owner)) {
                 builder.andQuery(equal("spec.owner", owner));
             }
+            if (mediaType != null) {
+                builder.andQuery(equal(Moment.MEDIUM_TYPE_INDEX_NAME, mediaType.name()));
+            }
             return builder.build();
         }
 
         public PageRequest toPageRequest() {
             return PageRequestImpl.of(pageNullSafe(getPage()),
-                sizeNullSafe(getSize()), SortUtils.resolve(sort).and(defaultSort()));
+                sizeNullSafe(getSize()),
+                SortUtils.releaseTimeByKey(SortUtils.resolve(sort)).and(defaultSort()));
         }
     }
 }
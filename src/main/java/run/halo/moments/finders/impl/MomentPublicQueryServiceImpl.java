@@ -2,34 +2,151 @@ package run.halo.moments.finders.impl;
 
 import jakarta.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import run.halo.app.core.extension.Counter;
-import run.halo.app.core.extension.User;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.PageRequest;
+import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.moments.Moment;
+import run.halo.moments.MomentCursor;
+import run.halo.moments.MomentFields;
 import run.halo.moments.ReactiveQueryMomentPredicateResolver;
-import run.halo.moments.Stats;
 import run.halo.moments.finders.MomentPublicQueryService;
-import run.halo.moments.util.MeterUtils;
-import run.halo.moments.vo.ContributorVo;
+import run.halo.moments.service.MomentEnricher;
 import run.halo.moments.vo.MomentVo;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Component
 @RequiredArgsConstructor
 public class MomentPublicQueryServiceImpl implements MomentPublicQueryService {
 
+    private static final int STREAM_CHUNK_SIZE = 20;
+
     private final ReactiveExtensionClient client;
 
     private final ReactiveQueryMomentPredicateResolver momentPredicateResolver;
 
+    private final MomentEnricher momentEnricher;
+
     @Override
     public Mono<ListResult<MomentVo>> list(ListOptions queryOptions, PageRequest page) {
+        return list(queryOptions, page, MomentFields.ALL);
+    }
+
+    @Override
+    public Mono<ListResult<MomentVo>> list(ListOptions queryOptions, PageRequest page,
+        MomentFields fields) {
+        return listEnriched(queryOptions, page, fields)
+            .map(list -> new ListResult<>(list.getPage(), list.getSize(), list.getTotal(),
+                list.getItems().stream()
+                    .map(enriched -> toMomentVo(enriched, fields))
+                    .toList()));
+    }
+
+    @Override
+    public Mono<ListResult<MomentEnricher.EnrichedMoment>> listEnriched(
+        ListOptions queryOptions, PageRequest page, MomentFields fields) {
+        return getListOptions(queryOptions)
+            .flatMap(listOptions -> client.listBy(Moment.class, listOptions, page)
+                .flatMap(list -> momentEnricher.enrich(list.getItems(), fields,
+                        Function.identity())
+                    .map(enriched -> new ListResult<>(list.getPage(), list.getSize(),
+                        list.getTotal(), enriched)
+                    )
+                )
+                .defaultIfEmpty(
+                    new ListResult<>(page.getPageNumber(), page.getPageSize(), 0L, List.of())
+                )
+            );
+    }
+
+    @Override
+    public Mono<MomentEnricher.EnrichedMoment> getEnriched(String name) {
+        return momentPredicateResolver.getPredicate()
+            .flatMap(predicate -> client.fetch(Moment.class, name).filter(predicate))
+            .flatMap(moment -> momentEnricher.enrich(List.of(moment), MomentFields.ALL,
+                Function.identity()))
+            .map(enriched -> enriched.get(0));
+    }
+
+    @Override
+    public Flux<MomentVo> stream(ListOptions queryOptions, PageRequest page,
+        MomentFields fields) {
+        return getListOptions(queryOptions)
+            .flatMapMany(listOptions -> isKeysetOrdered(page)
+                ? streamChunks(listOptions, page)
+                : client.listBy(Moment.class, listOptions, page).map(ListResult::getItems))
+            // enrich each chunk as it arrives instead of waiting for the whole page
+            .concatMap(moments -> momentEnricher.enrich(moments, fields,
+                enriched -> toMomentVo(enriched, fields)))
+            .flatMapIterable(Function.identity());
+    }
+
+    private static boolean isKeysetOrdered(PageRequest page) {
+        var sort = page.getSort();
+        return MomentCursor.SORT.equals(sort)
+            || Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME).descending().equals(sort);
+    }
+
+    /**
+     * Fetches the moments of the given page in chunks of {@link #STREAM_CHUNK_SIZE}, each
+     * seeking from the last moment of the previous chunk in {@link MomentCursor#SORT} order.
+     */
+    private Flux<List<Moment>> streamChunks(ListOptions listOptions, PageRequest page) {
+        var limit = page.getPageSize() > 0 ? page.getPageSize() : Long.MAX_VALUE;
+        var skipped = (long) (Math.max(page.getPageNumber(), 1) - 1) * page.getPageSize();
+        Mono<Optional<MomentCursor>> start = Mono.just(Optional.empty());
+        if (skipped > 0) {
+            // only the last moment of the previous pages is loaded to seek from it
+            start = client.listBy(Moment.class, listOptions,
+                    PageRequestImpl.of(Math.toIntExact(skipped), 1, MomentCursor.SORT))
+                .filter(result -> !result.getItems().isEmpty())
+                .map(result -> Optional.ofNullable(MomentCursor.of(result.getItems().get(0))));
+        }
+        return start
+            .flatMapMany(after -> nextChunk(listOptions, after.orElse(null), limit)
+                .expand(chunk -> chunk.last() ? Mono.empty()
+                    : nextChunk(listOptions, chunk.after(), chunk.remaining())))
+            .map(Chunk::items);
+    }
+
+    private Mono<Chunk> nextChunk(ListOptions listOptions, @Nullable MomentCursor after,
+        long remaining) {
+        var options = listOptions;
+        if (after != null) {
+            options = new ListOptions();
+            options.setLabelSelector(listOptions.getLabelSelector());
+            options.setFieldSelector(listOptions.getFieldSelector().andQuery(after.toQuery()));
+        }
+        var size = (int) Math.min(remaining, STREAM_CHUNK_SIZE);
+        return client.listBy(Moment.class, options, PageRequestImpl.of(1, size, MomentCursor.SORT))
+            .map(result -> {
+                var items = result.getItems();
+                var next = items.isEmpty() ? null : MomentCursor.of(items.get(items.size() - 1));
+                var left = remaining - items.size();
+                return new Chunk(items, next, left, !result.hasNext() || next == null || left <= 0);
+            });
+    }
+
+    /**
+     * A chunk of a streamed page.
+     *
+     * @param after cursor of the last moment of the chunk
+     * @param remaining number of moments of the page still to fetch
+     * @param last whether no chunk follows
+     */
+    record Chunk(List<Moment> items, @Nullable MomentCursor after, long remaining,
+                 boolean last) {
+    }
+
+    private Mono<ListOptions> getListOptions(ListOptions queryOptions) {
         return momentPredicateResolver.getListOptions()
             .map(option -> {
                 var fieldSelector = queryOptions.getFieldSelector();
@@ -42,47 +159,34 @@ public class MomentPublicQueryServiceImpl implements MomentPublicQueryService {
                     option.setLabelSelector(labelSelector);
                 }
                 return option;
-            })
-            .flatMap(listOptions -> client.listBy(Moment.class, listOptions, page)
-                .flatMap(list -> Flux.fromStream(list.get())
-                    .concatMap(this::getMomentVo)
-                    .collectList()
-                    .map(momentVos -> new ListResult<>(list.getPage(), list.getSize(),
-                        list.getTotal(), momentVos)
-                    )
-                )
-                .defaultIfEmpty(
-                    new ListResult<>(page.getPageNumber(), page.getPageSize(), 0L, List.of())
-                )
-            );
+            });
     }
 
     @Override
     public Mono<MomentVo> getMomentVo(@Nonnull Moment moment) {
-        MomentVo momentVo = MomentVo.from(moment);
-        return Mono.just(momentVo)
-            .flatMap(mv -> populateStats(momentVo)
-                .doOnNext(mv::setStats)
-                .thenReturn(mv)
-            )
-            .flatMap(mv -> {
-                String owner = mv.getSpec().getOwner();
-                return client.fetch(User.class, owner)
-                    .map(ContributorVo::from)
-                    .doOnNext(mv::setOwner)
-                    .thenReturn(mv);
-            })
-            .defaultIfEmpty(momentVo);
+        return getMomentVos(List.of(moment))
+            .map(momentVos -> momentVos.get(0));
     }
 
-    private Mono<Stats> populateStats(MomentVo momentVo) {
-        String name = momentVo.getMetadata().getName();
-        return client.fetch(Counter.class, MeterUtils.nameOf(Moment.class, name))
-            .map(counter -> Stats.builder()
-                .upvote(counter.getUpvote())
-                .totalComment(counter.getTotalComment())
-                .approvedComment(counter.getApprovedComment())
-                .build())
-            .defaultIfEmpty(Stats.empty());
+    @Override
+    public Mono<List<MomentVo>> getMomentVos(@Nonnull List<Moment> moments) {
+        return momentEnricher.enrich(moments, MomentFields.ALL,
+            enriched -> toMomentVo(enriched, MomentFields.ALL));
+    }
+
+    @Override
+    public Flux<MomentVo> getMomentVos(@Nonnull Flux<Moment> moments) {
+        return momentEnricher.enrich(moments, MomentFields.ALL,
+            enriched -> toMomentVo(enriched, MomentFields.ALL));
+    }
+
+    @Override
+    public MomentVo toMomentVo(MomentEnricher.EnrichedMoment enrichedMoment,
+        MomentFields fields) {
+        var momentVo = MomentVo.from(enrichedMoment.moment());
+        momentVo.setSpec(fields.project(momentVo.getSpec()));
+        momentVo.setOwner(enrichedMoment.owner());
+        momentVo.setStats(enrichedMoment.stats());
+        return momentVo;
     }
 }
@@ -0,0 +1,157 @@
+package run.halo.moments.index;
+
+import static run.halo.app.extension.index.query.QueryFactory.greaterThan;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.router.selector.FieldSelector;
+import run.halo.moments.Moment;
+import run.halo.moments.SchemeRegistered;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+
+/**
+ * <p>Base class of in-memory indexes over moments.</p>
+ * <p>An index is loaded from the moments matching {@link #loadOptions()} in the background
+ * once the moment scheme is registered, and then kept up to date incrementally by the
+ * {@link MomentUpdatedEvent} and {@link MomentDeletedEvent} published by the moment
+ * reconciler. Changes that arrive while loading take precedence over the loaded moments.</p>
+ * <p>Moments are loaded page by page in name order, seeking each page after the last name of
+ * the previous one, and each page is applied before the next one is fetched, so loading holds
+ * at most one page of full moments in memory. Reads wait until the index is loaded, and
+ * retry the load if it failed.</p>
+ * <p>All state of subclasses must be guarded by the index itself, {@link #apply(String,
+ * Moment)} is always called with the lock held.</p>
+ */
+@Slf4j
+public abstract class AbstractMomentIndex implements ApplicationListener<SchemeRegistered> {
+
+    private static final int LOAD_PAGE_SIZE = 200;
+
+    private final ReactiveExtensionClient client;
+
+    /**
+     * Names of the moments changed while loading, guarded by this.
+     */
+    private final Set<String> changedWhileLoading = new HashSet<>();
+
+    private boolean loaded;
+
+    private Mono<Void> loader;
+
+    protected AbstractMomentIndex(ReactiveExtensionClient client) {
+        this.client = client;
+        this.loader = newLoader();
+    }
+
+    /**
+     * Completes once the index has been loaded.
+     */
+    protected synchronized Mono<Void> ready() {
+        return loaded ? Mono.empty() : loader;
+    }
+
+    /**
+     * Options to list the moments to load the index from, all moments by default. A new
+     * instance is returned on every call.
+     */
+    protected ListOptions loadOptions() {
+        return new ListOptions();
+    }
+
+    /**
+     * Replaces the indexed state of the given moment.
+     *
+     * @param name name of the moment
+     * @param moment the latest moment, null if it is deleted
+     */
+    protected abstract void apply(String name, @Nullable Moment moment);
+
+    @Override
+    public void onApplicationEvent(@NonNull SchemeRegistered event) {
+        // warm up, so the first request does not pay for loading
+        ready().subscribe(null, e -> log.warn("Failed to load {}, retrying on first use",
+            getClass().getSimpleName(), e));
+    }
+
+    @EventListener
+    public void onMomentUpdated(MomentUpdatedEvent event) {
+        onMomentChanged(event.getMomentName(), event.getMoment());
+    }
+
+    @EventListener
+    public void onMomentDeleted(MomentDeletedEvent event) {
+        onMomentChanged(event.getMomentName(), null);
+    }
+
+    private synchronized void onMomentChanged(String name, @Nullable Moment moment) {
+        if (!loaded) {
+            changedWhileLoading.add(name);
+        }
+        apply(name, moment == null || ExtensionUtil.isDeleted(moment) ? null : moment);
+    }
+
+    private Mono<Void> newLoader() {
+        return loadPage(null)
+            .expand(page -> page.size() < LOAD_PAGE_SIZE ? Mono.empty()
+                : loadPage(page.get(page.size() - 1).getMetadata().getName()))
+            .doOnNext(this::load)
+            .then(Mono.fromRunnable(this::markLoaded))
+            .doOnError(e -> {
+                synchronized (this) {
+                    // retry on next use
+                    loader = newLoader();
+                }
+            })
+            .then()
+            .cache();
+    }
+
+    /**
+     * Fetches the page of moments following the given name.
+     *
+     * @param lastName name of the last moment of the previous page, null for the first page
+     */
+    private Mono<List<Moment>> loadPage(@Nullable String lastName) {
+        return Mono.defer(() -> {
+            var options = loadOptions();
+            if (lastName != null) {
+                var after = greaterThan("metadata.name", lastName);
+                var fieldSelector = options.getFieldSelector();
+                options.setFieldSelector(fieldSelector == null ? FieldSelector.of(after)
+                    : fieldSelector.andQuery(after));
+            }
+            return client.listBy(Moment.class, options,
+                    PageRequestImpl.of(1, LOAD_PAGE_SIZE, Sort.by("metadata.name")))
+                .map(ListResult::getItems);
+        });
+    }
+
+    private synchronized void load(List<Moment> moments) {
+        if (loaded) {
+            return;
+        }
+        moments.stream()
+            .filter(moment -> !changedWhileLoading.contains(moment.getMetadata().getName()))
+            .filter(moment -> !ExtensionUtil.isDeleted(moment))
+            .forEach(moment -> apply(moment.getMetadata().getName(), moment));
+    }
+
+    private synchronized void markLoaded() {
+        changedWhileLoading.clear();
+        loaded = true;
+    }
+}
@@ -0,0 +1,104 @@
+package run.halo.moments.index;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+
+/**
+ * <p>Histogram of moments by the month of their release time, in the system time zone.</p>
+ * <p>Counts are split by visibility and approval in the same way as {@link MomentTagIndex},
+ * so that archives follow the semantics of
+ * {@link run.halo.moments.DefaultQueryMomentPredicateResolver}.</p>
+ */
+@Component
+public class MomentArchiveIndex extends AbstractMomentIndex {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Month counts of approved public moments.
+     */
+    private final Map<YearMonth, Integer> publicCounts = new HashMap<>();
+
+    /**
+     * Month counts of approved non-public moments by owner.
+     */
+    private final Map<String, Map<YearMonth, Integer>> privateCountsByOwner = new HashMap<>();
+
+    public MomentArchiveIndex(ReactiveExtensionClient client) {
+        super(client);
+    }
+
+    /**
+     * Counts the moments visible to the given user on the theme side by month.
+     *
+     * @param username the current user, null for anonymous visitors
+     * @return month counts, latest month first
+     */
+    public Mono<NavigableMap<YearMonth, Integer>> countVisibleByMonth(@Nullable String username) {
+        return ready().then(Mono.fromSupplier(() -> {
+            synchronized (this) {
+                var counts = new TreeMap<YearMonth, Integer>(publicCounts).descendingMap();
+                if (username != null) {
+                    privateCountsByOwner.getOrDefault(username, Map.of())
+                        .forEach((month, count) -> counts.merge(month, count, Integer::sum));
+                }
+                return counts;
+            }
+        }));
+    }
+
+    @Override
+    protected void apply(String name, @Nullable Moment moment) {
+        var entry = Entry.of(moment);
+        var previous = entry == null ? entries.remove(name) : entries.put(name, entry);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (entry != null) {
+            count(entry, 1);
+        }
+    }
+
+    private void count(Entry entry, int delta) {
+        if (entry.publiclyVisible()) {
+            increment(publicCounts, entry.month(), delta);
+            return;
+        }
+        var privateCounts =
+            privateCountsByOwner.computeIfAbsent(entry.owner(), k -> new HashMap<>());
+        increment(privateCounts, entry.month(), delta);
+        if (privateCounts.isEmpty()) {
+            privateCountsByOwner.remove(entry.owner());
+        }
+    }
+
+    private static void increment(Map<YearMonth, Integer> counts, YearMonth month, int delta) {
+        counts.merge(month, delta, (count, d) -> count + d == 0 ? null : count + d);
+    }
+
+    /**
+     * An approved moment with a release time, others are never listed on the theme side.
+     */
+    record Entry(String owner, YearMonth month, boolean publiclyVisible) {
+
+        @Nullable
+        static Entry of(@Nullable Moment moment) {
+            if (moment == null || moment.getSpec() == null || !moment.isApproved()
+                || moment.getSpec().getReleaseTime() == null) {
+                return null;
+            }
+            var month = YearMonth.from(moment.getSpec().getReleaseTime()
+                .atZone(ZoneId.systemDefault()));
+            return new Entry(moment.getSpec().getOwner(), month, moment.isPubliclyVisible());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package run.halo.moments.index;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+
+/**
+ * <p>Inverted index over the raw content and tags of moments for keyword search in the
+ * console and user center.</p>
+ * <p>A moment matches a keyword if it contains all tokens of the keyword, see
+ * {@link MomentTokenizer}. Matches are ranked by the summed frequency of the tokens, where
+ * tokens of tags weigh more than tokens of the content.</p>
+ */
+@Component
+public class MomentKeywordIndex extends AbstractMomentIndex {
+
+    private static final int TAG_WEIGHT = 3;
+
+    private final int maxResults;
+
+    /**
+     * Token to the weighted frequency of the token by moment name.
+     */
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+
+    /**
+     * Moment name to its weighted token frequencies, to remove the moment from postings.
+     */
+    private final Map<String, Map<String, Integer>> termsByMoment = new HashMap<>();
+
+    public MomentKeywordIndex(ReactiveExtensionClient client,
+        @Value("${moments.keyword-search.max-results:1000}") int maxResults) {
+        super(client);
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Searches moments by the given keyword.
+     *
+     * @param keyword the keyword
+     * @return names of the matched moments, most relevant first
+     */
+    public Mono<List<String>> search(String keyword) {
+        var tokens = MomentTokenizer.tokenizeQuery(StringUtils.defaultString(keyword));
+        if (tokens.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return ready().then(Mono.fromSupplier(() -> {
+            synchronized (this) {
+                Map<String, Integer> scores = null;
+                // intersect from the rarest token to keep the candidate set small
+                var sortedTokens = tokens.stream()
+                    .sorted(Comparator.comparingInt(
+                        token -> postings.getOrDefault(token, Map.of()).size()))
+                    .toList();
+                for (var token : sortedTokens) {
+                    var posting = postings.get(token);
+                    if (posting == null) {
+                        return List.<String>of();
+                    }
+                    if (scores == null) {
+                        scores = new HashMap<>(posting);
+                    } else {
+                        scores.keySet().retainAll(posting.keySet());
+                        scores.replaceAll((name, score) -> score + posting.get(name));
+                    }
+                    if (scores.isEmpty()) {
+                        return List.<String>of();
+                    }
+                }
+                return scores.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(maxResults)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            }
+        }));
+    }
+
+    @Override
+    protected void apply(String name, @Nullable Moment moment) {
+        var previous = termsByMoment.remove(name);
+        if (previous != null) {
+            previous.keySet().forEach(token -> {
+                var posting = postings.get(token);
+                if (posting != null && posting.remove(name) != null && posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            });
+        }
+        if (moment == null || moment.getSpec() == null) {
+            return;
+        }
+        var terms = terms(moment.getSpec());
+        if (terms.isEmpty()) {
+            return;
+        }
+        termsByMoment.put(name, terms);
+        terms.forEach((token, frequency) -> postings.computeIfAbsent(token, k -> new HashMap<>())
+            .put(name, frequency));
+    }
+
+    private static Map<String, Integer> terms(Moment.MomentSpec spec) {
+        var terms = new HashMap<String, Integer>();
+        var content = spec.getContent();
+        if (content != null && StringUtils.isNotBlank(content.getRaw())) {
+            var text = Jsoup.parse(content.getRaw()).text();
+            MomentTokenizer.tokenize(text)
+                .forEach(token -> terms.merge(token, 1, Integer::sum));
+        }
+        if (spec.getTags() != null) {
+            spec.getTags().stream()
+                .filter(StringUtils::isNotBlank)
+                .flatMap(tag -> MomentTokenizer.tokenize(tag).stream())
+                .forEach(token -> terms.merge(token, TAG_WEIGHT, Integer::sum));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,247 @@
+package run.halo.moments.index;
+
+import static run.halo.app.extension.index.query.QueryFactory.all;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+
+/**
+ * <p>Media items of moments in release time order, for galleries that page over individual
+ * media items rather than moments.</p>
+ * <p>Only approved moments with a release time and media are indexed, and visibility follows
+ * {@link run.halo.moments.DefaultQueryMomentPredicateResolver} in the same way as
+ * {@link MomentTagIndex}. Items are kept in ordered lists per media type, split into public
+ * items and the non-public items of each owner, so a page is a slice of at most two lists
+ * rather than a scan over all moments.</p>
+ */
+@Component
+public class MomentMediaIndex extends AbstractMomentIndex {
+
+    /**
+     * Latest moment first, and in the order of the medium within a moment.
+     */
+    private static final Comparator<Slot> ORDER =
+        Comparator.comparing((Slot slot) -> slot.item().releaseTime())
+            .thenComparing(slot -> slot.item().momentName())
+            .reversed()
+            .thenComparingInt(Slot::index);
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Media items of approved public moments.
+     */
+    private final MediaLists publicMedia = new MediaLists();
+
+    /**
+     * Media items of approved non-public moments by owner.
+     */
+    private final Map<String, MediaLists> privateMediaByOwner = new HashMap<>();
+
+    public MomentMediaIndex(ReactiveExtensionClient client) {
+        super(client);
+    }
+
+    /**
+     * Lists the media items of the moments visible to the given user on the theme side,
+     * latest moment first and in the order of the medium within a moment.
+     *
+     * @param username the current user, null for anonymous visitors
+     * @param type the media type, null for all types
+     * @param page page number starting from 1
+     * @param size page size, 0 for all items
+     * @return a page of media items
+     */
+    public Mono<ListResult<MediaItem>> listVisibleMedia(@Nullable String username,
+        @Nullable Moment.MomentMediaType type, int page, int size) {
+        return ready().then(Mono.fromSupplier(() -> {
+            synchronized (this) {
+                var publicSlots = publicMedia.get(type);
+                var ownSlots = username == null ? List.<Slot>of()
+                    : privateMediaByOwner.getOrDefault(username, MediaLists.EMPTY).get(type);
+                int total = publicSlots.size() + ownSlots.size();
+                int skip = size == 0 ? 0
+                    : (int) Math.min((long) (Math.max(page, 1) - 1) * size, total);
+                int limit = size == 0 ? total : Math.min(size, total - skip);
+                var items = merge(publicSlots, ownSlots, skip, limit);
+                return new ListResult<>(page, size, total, items);
+            }
+        }));
+    }
+
+    /**
+     * Takes a slice of the ordered merge of two disjoint ordered lists, without walking the
+     * items before the slice.
+     */
+    private static List<MediaItem> merge(List<Slot> publicSlots, List<Slot> ownSlots,
+        int skip, int limit) {
+        // the number of own items among the skipped ones, their merged positions increase
+        int low = 0;
+        int high = ownSlots.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mergedPosition(ownSlots, mid, publicSlots) < skip) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int own = low;
+        int pub = skip - own;
+        var items = new ArrayList<MediaItem>(limit);
+        while (items.size() < limit) {
+            if (own < ownSlots.size() && (pub >= publicSlots.size()
+                || ORDER.compare(ownSlots.get(own), publicSlots.get(pub)) < 0)) {
+                items.add(ownSlots.get(own++).item());
+            } else {
+                items.add(publicSlots.get(pub++).item());
+            }
+        }
+        return items;
+    }
+
+    private static int mergedPosition(List<Slot> ownSlots, int index, List<Slot> publicSlots) {
+        // the lists are disjoint, so the slot is never found
+        return index - Collections.binarySearch(publicSlots, ownSlots.get(index), ORDER) - 1;
+    }
+
+    @Override
+    protected ListOptions loadOptions() {
+        return ListOptions.builder()
+            .andQuery(all(Moment.MEDIUM_TYPE_INDEX_NAME))
+            .build();
+    }
+
+    @Override
+    protected void apply(String name, @Nullable Moment moment) {
+        var entry = Entry.of(name, moment);
+        var previous = entry == null ? entries.remove(name) : entries.put(name, entry);
+        if (previous != null) {
+            var lists = listsOf(previous);
+            previous.slots().forEach(lists::remove);
+            if (!previous.publiclyVisible() && lists.isEmpty()) {
+                privateMediaByOwner.remove(previous.owner());
+            }
+        }
+        if (entry != null) {
+            entry.slots().forEach(listsOf(entry)::add);
+        }
+    }
+
+    private MediaLists listsOf(Entry entry) {
+        return entry.publiclyVisible() ? publicMedia
+            : privateMediaByOwner.computeIfAbsent(entry.owner(), owner -> new MediaLists());
+    }
+
+    /**
+     * A media item and the moment it belongs to.
+     */
+    public record MediaItem(String momentName, Instant releaseTime, Moment.MomentMedia media) {
+    }
+
+    /**
+     * A media item and its position in the medium of its moment.
+     */
+    record Slot(MediaItem item, int index) {
+    }
+
+    /**
+     * Ordered media items of all types and of each type.
+     */
+    static class MediaLists {
+
+        static final MediaLists EMPTY = new MediaLists();
+
+        private final List<Slot> all = new ArrayList<>();
+
+        private final Map<Moment.MomentMediaType, List<Slot>> byType =
+            new EnumMap<>(Moment.MomentMediaType.class);
+
+        List<Slot> get(@Nullable Moment.MomentMediaType type) {
+            return type == null ? all : byType.getOrDefault(type, List.of());
+        }
+
+        void add(Slot slot) {
+            insert(all, slot);
+            var type = slot.item().media().getType();
+            if (type != null) {
+                insert(byType.computeIfAbsent(type, key -> new ArrayList<>()), slot);
+            }
+        }
+
+        void remove(Slot slot) {
+            delete(all, slot);
+            var type = slot.item().media().getType();
+            var slots = type == null ? null : byType.get(type);
+            if (slots != null) {
+                delete(slots, slot);
+                if (slots.isEmpty()) {
+                    byType.remove(type);
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return all.isEmpty();
+        }
+
+        private static void insert(List<Slot> slots, Slot slot) {
+            var index = Collections.binarySearch(slots, slot, ORDER);
+            if (index < 0) {
+                slots.add(-index - 1, slot);
+            }
+        }
+
+        private static void delete(List<Slot> slots, Slot slot) {
+            var index = Collections.binarySearch(slots, slot, ORDER);
+            if (index >= 0) {
+                slots.remove(index);
+            }
+        }
+    }
+
+    /**
+     * An approved moment with a release time and media, others are never listed on the
+     * theme side.
+     */
+    record Entry(String owner, boolean publiclyVisible, List<Slot> slots) {
+
+        @Nullable
+        static Entry of(String name, @Nullable Moment moment) {
+            if (moment == null || moment.getSpec() == null || !moment.isApproved()
+                || moment.getSpec().getReleaseTime() == null
+                || moment.getSpec().getOwner() == null
+                || moment.getSpec().getContent() == null
+                || moment.getSpec().getContent().getMedium() == null) {
+                return null;
+            }
+            var medium = moment.getSpec().getContent().getMedium().stream()
+                .filter(Objects::nonNull)
+                .toList();
+            if (medium.isEmpty()) {
+                return null;
+            }
+            var releaseTime = moment.getSpec().getReleaseTime();
+            var slots = IntStream.range(0, medium.size())
+                .mapToObj(index -> new Slot(new MediaItem(name, releaseTime, medium.get(index)),
+                    index))
+                .toList();
+            return new Entry(moment.getSpec().getOwner(), moment.isPubliclyVisible(), slots);
+        }
+    }
+}
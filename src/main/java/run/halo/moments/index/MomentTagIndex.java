@@ -0,0 +1,236 @@
+package run.halo.moments.index;
+
+import static run.halo.app.extension.index.query.QueryFactory.all;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+
+/**
+ * <p>Materialized tag counts of moments.</p>
+ * <p>Counts are split by visibility and approval, so that listing the tags visible to a
+ * visitor or owned by a user costs O(#tags) instead of a scan over all moments.</p>
+ */
+@Component
+public class MomentTagIndex extends AbstractMomentIndex {
+
+    private static final Comparator<TagCount> BY_COUNT_DESC =
+        Comparator.comparingInt(TagCount::count).reversed()
+            .thenComparing(TagCount::name);
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Tag counts of approved public moments.
+     */
+    private final Map<String, Integer> publicCounts = new HashMap<>();
+
+    /**
+     * Tag counts of approved non-public moments by owner.
+     */
+    private final Map<String, Map<String, Integer>> privateCountsByOwner = new HashMap<>();
+
+    /**
+     * Tags of all moments by owner.
+     */
+    private final Map<String, OwnerTags> tagsByOwner = new HashMap<>();
+
+    public MomentTagIndex(ReactiveExtensionClient client) {
+        super(client);
+    }
+
+    /**
+     * Lists the tags of the moments visible to the given user on the theme side, that is the
+     * approved public moments and the approved moments of the user.
+     *
+     * @param username the current user, null for anonymous visitors
+     * @return tags ordered by moment count descending
+     */
+    public Mono<List<TagCount>> listVisibleTags(@Nullable String username) {
+        return ready().then(Mono.fromSupplier(() -> {
+            synchronized (this) {
+                var counts = new HashMap<>(publicCounts);
+                if (username != null) {
+                    privateCountsByOwner.getOrDefault(username, Map.of())
+                        .forEach((tag, count) -> counts.merge(tag, count, Integer::sum));
+                }
+                return sorted(counts);
+            }
+        }));
+    }
+
+    /**
+     * <p>Lists the tags of all moments of the given owner regardless of visibility and
+     * approval, optionally filtered by a keyword for autocompletion.</p>
+     * <p>Tags starting with the keyword are looked up in a case-folded prefix index and come
+     * first, followed by the tags containing it elsewhere. Both groups are ordered by moment
+     * count descending.</p>
+     *
+     * @param owner the owner, null for all owners
+     * @param keyword case-insensitive keyword, null or blank for all tags
+     * @param limit maximum number of tags to return
+     * @return the matched tags
+     */
+    public Mono<List<TagCount>> listOwnerTags(@Nullable String owner, @Nullable String keyword,
+        int limit) {
+        return ready().then(Mono.fromSupplier(() -> {
+            synchronized (this) {
+                var ownerTags = owner == null ? allOwnerTags() : tagsByOwner.get(owner);
+                if (ownerTags == null) {
+                    return List.of();
+                }
+                if (StringUtils.isBlank(keyword)) {
+                    return sorted(ownerTags.counts.entrySet().stream(), limit);
+                }
+                var prefix = fold(keyword);
+                var prefixMatches = sorted(ownerTags.folded
+                    .subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                    .values().stream()
+                    .flatMap(Set::stream)
+                    .map(tag -> Map.entry(tag, ownerTags.counts.get(tag))), limit);
+                if (prefixMatches.size() >= limit) {
+                    return prefixMatches;
+                }
+                var otherMatches = sorted(ownerTags.counts.entrySet().stream()
+                    .filter(entry -> {
+                        var folded = fold(entry.getKey());
+                        return !folded.startsWith(prefix) && folded.contains(prefix);
+                    }), limit - prefixMatches.size());
+                return Stream.concat(prefixMatches.stream(), otherMatches.stream()).toList();
+            }
+        }));
+    }
+
+    private OwnerTags allOwnerTags() {
+        var allTags = new OwnerTags();
+        tagsByOwner.values().forEach(ownerTags -> ownerTags.counts
+            .forEach(allTags::increment));
+        return allTags;
+    }
+
+    @Override
+    protected ListOptions loadOptions() {
+        return ListOptions.builder()
+            .andQuery(all("spec.tags"))
+            .build();
+    }
+
+    @Override
+    protected void apply(String name, @Nullable Moment moment) {
+        var entry = Entry.of(moment);
+        var previous = entry == null ? entries.remove(name) : entries.put(name, entry);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (entry != null) {
+            count(entry, 1);
+        }
+    }
+
+    private void count(Entry entry, int delta) {
+        var ownerTags = tagsByOwner.computeIfAbsent(entry.owner(), k -> new OwnerTags());
+        entry.tags().forEach(tag -> ownerTags.increment(tag, delta));
+        if (ownerTags.counts.isEmpty()) {
+            tagsByOwner.remove(entry.owner());
+        }
+        if (!entry.approved()) {
+            return;
+        }
+        if (entry.publiclyVisible()) {
+            entry.tags().forEach(tag -> increment(publicCounts, tag, delta));
+            return;
+        }
+        var privateCounts =
+            privateCountsByOwner.computeIfAbsent(entry.owner(), k -> new HashMap<>());
+        entry.tags().forEach(tag -> increment(privateCounts, tag, delta));
+        if (privateCounts.isEmpty()) {
+            privateCountsByOwner.remove(entry.owner());
+        }
+    }
+
+    @Nullable
+    private static Integer increment(Map<String, Integer> counts, String tag, int delta) {
+        return counts.merge(tag, delta, (count, d) -> count + d == 0 ? null : count + d);
+    }
+
+    private static List<TagCount> sorted(Map<String, Integer> counts) {
+        return sorted(counts.entrySet().stream(), Integer.MAX_VALUE);
+    }
+
+    private static List<TagCount> sorted(Stream<Map.Entry<String, Integer>> counts, int limit) {
+        return counts
+            .map(entry -> new TagCount(entry.getKey(), entry.getValue()))
+            .sorted(BY_COUNT_DESC)
+            .limit(limit)
+            .toList();
+    }
+
+    private static String fold(String tag) {
+        return tag.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A tag and the number of moments using it.
+     */
+    public record TagCount(String name, int count) {
+    }
+
+    /**
+     * Tag counts of an owner with a case-folded prefix index over the tags.
+     */
+    static class OwnerTags {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        /**
+         * Case-folded tag to the tags folding to it.
+         */
+        private final NavigableMap<String, Set<String>> folded = new TreeMap<>();
+
+        void increment(String tag, int delta) {
+            var count = MomentTagIndex.increment(counts, tag, delta);
+            if (count == null) {
+                var key = fold(tag);
+                var tags = folded.get(key);
+                if (tags != null && tags.remove(tag) && tags.isEmpty()) {
+                    folded.remove(key);
+                }
+            } else if (count == delta) {
+                folded.computeIfAbsent(fold(tag), k -> new HashSet<>()).add(tag);
+            }
+        }
+    }
+
+    record Entry(String owner, Set<String> tags, boolean approved, boolean publiclyVisible) {
+
+        @Nullable
+        static Entry of(@Nullable Moment moment) {
+            if (moment == null || moment.getSpec() == null
+                || CollectionUtils.isEmpty(moment.getSpec().getTags())
+                || moment.getSpec().getOwner() == null) {
+                return null;
+            }
+            var tags = moment.getSpec().getTags().stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toUnmodifiableSet());
+            return new Entry(moment.getSpec().getOwner(), tags, moment.isApproved(),
+                moment.isPubliclyVisible());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package run.halo.moments.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * <p>Tokenizer for the keyword index.</p>
+ * <p>Latin text is split into lower-cased words of letters and digits. Runs of CJK characters
+ * have no word boundaries, so they are indexed as both single characters and overlapping
+ * bigrams, and queried by bigrams, or by the character itself for a single character.</p>
+ */
+final class MomentTokenizer {
+
+    private MomentTokenizer() {
+    }
+
+    /**
+     * Tokenizes the given text for indexing, repeated tokens are kept for term frequencies.
+     */
+    static List<String> tokenize(String text) {
+        var tokens = new ArrayList<String>();
+        split(text, (run, cjk) -> {
+            if (!cjk) {
+                tokens.add(run);
+                return;
+            }
+            var codePoints = run.codePoints().toArray();
+            for (int i = 0; i < codePoints.length; i++) {
+                tokens.add(new String(codePoints, i, 1));
+                if (i > 0) {
+                    tokens.add(new String(codePoints, i - 1, 2));
+                }
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * Tokenizes the given keyword for searching, all returned tokens must match.
+     */
+    static Set<String> tokenizeQuery(String keyword) {
+        var tokens = new LinkedHashSet<String>();
+        split(keyword, (run, cjk) -> {
+            var codePoints = run.codePoints().toArray();
+            if (!cjk || codePoints.length == 1) {
+                tokens.add(run);
+                return;
+            }
+            for (int i = 1; i < codePoints.length; i++) {
+                tokens.add(new String(codePoints, i - 1, 2));
+            }
+        });
+        return tokens;
+    }
+
+    private static void split(String text, RunConsumer consumer) {
+        var run = new StringBuilder();
+        var cjkRun = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            var cjk = isCjk(codePoint);
+            if (!cjk && !Character.isLetterOrDigit(codePoint)) {
+                flush(run, cjkRun, consumer);
+                continue;
+            }
+            if (cjk != cjkRun) {
+                flush(run, cjkRun, consumer);
+                cjkRun = cjk;
+            }
+            run.appendCodePoint(cjk ? codePoint : Character.toLowerCase(codePoint));
+        }
+        flush(run, cjkRun, consumer);
+    }
+
+    private static void flush(StringBuilder run, boolean cjk, RunConsumer consumer) {
+        if (!run.isEmpty()) {
+            consumer.accept(run.toString().toLowerCase(Locale.ROOT), cjk);
+            run.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        var script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @FunctionalInterface
+    private interface RunConsumer {
+        void accept(String run, boolean cjk);
+    }
+}
@@ -0,0 +1,196 @@
+package run.halo.moments.rss;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.CollectionUtils;
+import run.halo.app.core.attachment.ThumbnailSize;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.infra.ExternalLinkProcessor;
+import run.halo.app.infra.ExternalUrlSupplier;
+import run.halo.moments.Moment;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.util.ExpiringLruCache;
+
+/**
+ * <p>Renders the feed HTML of moments, that is the content with absolute links and thumbnail
+ * images followed by the medium.</p>
+ * <p>The HTML is rendered when a public moment is reconciled and cached by moment name,
+ * digest of the content and external URL, so building a feed only concatenates cached
+ * strings. A change of any of them renders the HTML again on next use. The content digest
+ * rather than <code>metadata.version</code> is compared, as the moment of an update event
+ * is a copy taken before its version was bumped by persisting it.</p>
+ */
+public class MomentFeedHtmlRenderer {
+
+    private final ExternalUrlSupplier externalUrlSupplier;
+
+    private final ExternalLinkProcessor externalLinkProcessor;
+
+    private final ExpiringLruCache<String, FeedHtml> cache;
+
+    public MomentFeedHtmlRenderer(ExternalUrlSupplier externalUrlSupplier,
+        ExternalLinkProcessor externalLinkProcessor, MeterRegistry meterRegistry,
+        int maximumSize, Duration timeToLive) {
+        this.externalUrlSupplier = externalUrlSupplier;
+        this.externalLinkProcessor = externalLinkProcessor;
+        this.cache = new ExpiringLruCache<>("feed-html", maximumSize, timeToLive,
+            meterRegistry);
+    }
+
+    /**
+     * Gets the feed HTML of the given moment content, rendering it if it is not cached for
+     * the same content and the current external URL.
+     *
+     * @param name moment name
+     * @param content content of the moment
+     * @return the feed HTML
+     */
+    public String render(String name, Moment.MomentContent content) {
+        var externalUrl = String.valueOf(externalUrlSupplier.get());
+        var digest = contentDigest(content);
+        var cached = cache.get(name);
+        if (cached != null && cached.digest().equals(digest)
+            && cached.externalUrl().equals(externalUrl)) {
+            return cached.html();
+        }
+        var html = processHtml(StringUtils.defaultString(content.getHtml()))
+            + generateMediaHtmlList(content.getMedium());
+        cache.put(name, new FeedHtml(digest, externalUrl, html));
+        return html;
+    }
+
+    /**
+     * Computes the digest of the fields of the given content the feed HTML is rendered from.
+     */
+    static String contentDigest(Moment.MomentContent content) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        var values = new ArrayList<>();
+        values.add(content.getHtml());
+        if (content.getMedium() != null) {
+            content.getMedium().stream()
+                .filter(Objects::nonNull)
+                .forEach(media -> {
+                    values.add(media.getType());
+                    values.add(media.getUrl());
+                });
+        }
+        values.forEach(value -> {
+            messageDigest.update(Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+        });
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    @EventListener
+    public void onMomentUpdated(MomentUpdatedEvent event) {
+        var moment = event.getMoment();
+        if (ExtensionUtil.isDeleted(moment) || !moment.isApproved()
+            || !moment.isPubliclyVisible() || moment.getSpec().getContent() == null) {
+            cache.invalidate(event.getMomentName());
+            return;
+        }
+        render(event.getMomentName(), moment.getSpec().getContent());
+    }
+
+    @EventListener
+    public void onMomentDeleted(MomentDeletedEvent event) {
+        cache.invalidate(event.getMomentName());
+    }
+
+    private String processHtml(String html) {
+        var document = Jsoup.parse(html);
+
+        // Process all links
+        var links = document.select("a[href]");
+        for (Element link : links) {
+            var isTag = link.hasClass("tag");
+            String href = link.attr("href");
+            if (isTag && href.startsWith("?")) {
+                // 兼容旧版标签链接
+                href = "/moments" + href;
+            }
+            var absoluteUrl = externalLinkProcessor.processLink(href);
+            link.attr("href", absoluteUrl);
+        }
+        // process all images
+        var images = document.select("img[src]");
+        for (Element image : images) {
+            String src = image.attr("src");
+            var thumb = genThumbUrl(src, ThumbnailSize.M);
+            var absoluteUrl = externalLinkProcessor.processLink(thumb);
+            image.attr("src", absoluteUrl);
+        }
+        return document.body().html();
+    }
+
+    private String genThumbUrl(String url, ThumbnailSize size) {
+        return externalLinkProcessor.processLink(
+            "/apis/api.storage.halo.run/v1alpha1/thumbnails/-/via-uri?uri=" + url + "&size="
+                + size.name().toLowerCase()
+        );
+    }
+
+    private String generateMediaHtmlList(List<Moment.MomentMedia> medium) {
+        if (CollectionUtils.isEmpty(medium)) {
+            return "";
+        }
+        return medium.stream()
+            .map(this::generateSingleMediaHtml)
+            .collect(Collectors.joining());
+    }
+
+    private String generateSingleMediaHtml(Moment.MomentMedia media) {
+        var url = media.getUrl();
+        return switch (media.getType()) {
+            case PHOTO -> generatePhotoHtml(media);
+            case VIDEO ->
+                String.format("<video controls><source src=\"%s\" type=\"video/mp4\" /></video>",
+                    url);
+            case AUDIO ->
+                String.format("<audio controls><source src=\"%s\" type=\"audio/mpeg\" /></audio>",
+                    url);
+            case POST -> String.format("<a href=\"%s\">%s</a>", url, url);
+        };
+    }
+
+    private String generatePhotoHtml(Moment.MomentMedia media) {
+        // the best practice is to use the thumbnail for src
+        var mSrc = genThumbUrl(media.getUrl(), ThumbnailSize.M);
+        // If the reader does not support srcset, then only src,
+        var srcSet = """
+            %s 400w,
+            %s 800w,
+            %s 1200w,
+            """.formatted(
+            genThumbUrl(media.getUrl(), ThumbnailSize.S),
+            mSrc,
+            genThumbUrl(media.getUrl(), ThumbnailSize.L)
+        );
+        return String.format(
+            "<img src=\"%s\"%s alt=\"moment photo\" />",
+            mSrc,
+            srcSet
+        );
+    }
+
+    record FeedHtml(String digest, String externalUrl, String html) {
+    }
+}
@@ -1,19 +1,31 @@
 package run.halo.moments.rss;
 
+import static run.halo.app.extension.index.query.QueryFactory.all;
+import static run.halo.app.extension.index.query.QueryFactory.lessThanOrEqual;
+
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Element;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
 import org.springframework.lang.NonNull;
-import org.springframework.util.CollectionUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
-import run.halo.app.core.attachment.ThumbnailSize;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.infra.ExternalLinkProcessor;
 import run.halo.app.infra.ExternalUrlSupplier;
@@ -22,17 +34,74 @@ import run.halo.app.plugin.ReactiveSettingFetcher;
 import run.halo.feed.RSS2;
 import run.halo.feed.RssRouteItem;
 import run.halo.moments.Moment;
-import run.halo.moments.finders.MomentFinder;
+import run.halo.moments.event.ConfigMapUpdatedEvent;
+import run.halo.moments.event.ContributorUpdatedEvent;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.finders.MomentPublicQueryService;
+import run.halo.moments.util.SystemConfigUtils;
 import run.halo.moments.vo.MomentVo;
 
+/**
+ * <p>Provides the RSS feed of the latest public moments.</p>
+ * <p>Items are kept in a rolling window of at most <code>rssMaxItems</code> ready-made items,
+ * loaded once by an index-limited query. Afterwards only the moments changed since the
+ * previous build are rendered again, so building the feed does not depend on the number of
+ * moments ever published.</p>
+ * <p>Items also carry the display names of their owners and links resolved against the
+ * external URL, so the window is reloaded when an owner of an item or the system config
+ * changes.</p>
+ */
 @RequiredArgsConstructor
 public class MomentRssProvider implements RssRouteItem {
+    private static final int DEFAULT_MAX_ITEMS = 20;
+
+    private static final int RELEASE_TIME_KEY_LENGTH = 29;
+
+    private static final Sort WINDOW_SORT =
+        Sort.by(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME, "metadata.name").descending();
+
     private final ExternalUrlSupplier externalUrlSupplier;
     private final ExternalLinkProcessor externalLinkProcessor;
     private final ReactiveExtensionClient client;
     private final ReactiveSettingFetcher settingFetcher;
-    private final MomentFinder momentFinder;
+    private final MomentPublicQueryService momentPublicQueryService;
     private final SystemInfoGetter systemInfoGetter;
+    private final MomentFeedHtmlRenderer feedHtmlRenderer;
+
+    /**
+     * Items of the feed by {@link #windowKey(Instant, String)}, latest first. All window
+     * state is guarded by this.
+     */
+    private final NavigableMap<String, RSS2.Item> window =
+        new TreeMap<>(Comparator.reverseOrder());
+
+    private final Map<String, String> windowKeys = new HashMap<>();
+
+    /**
+     * Owners of the moments in the window by moment name.
+     */
+    private final Map<String, String> windowOwners = new HashMap<>();
+
+    /**
+     * Latest state of the moments changed since the previous build, null if deleted.
+     */
+    private final Map<String, Moment> changedMoments = new LinkedHashMap<>();
+
+    /**
+     * Maximum number of items the window was loaded for, -1 if it is not loaded.
+     */
+    private int windowSize = -1;
+
+    /**
+     * Incremented on every reload, so builds started before a reload are discarded.
+     */
+    private long windowGeneration;
+
+    /**
+     * Whether no public moment is older than the window.
+     */
+    private boolean exhausted;
 
     @Override
     public Mono<String> pathPattern() {
@@ -80,101 +149,247 @@ public class MomentRssProvider implements RssRouteItem {
             )
             .subscribeOn(Schedulers.boundedElastic());
 
-        var rssItemMono = momentFinder.listAll()
-            .map(moment -> {
-                var permalink = getMomentPermalink(moment);
-                var medium = moment.getSpec().getContent().getMedium();
-                var mediumHtml = generateMediaHtmlList(medium);
-                var htmlContent = processHtml(moment.getSpec().getContent().getHtml());
-                return RSS2.Item.builder()
-                    .title(buildMomentTitle(moment))
-                    .link(externalLinkProcessor.processLink(permalink))
-                    .pubDate(moment.getSpec().getReleaseTime())
-                    .guid(permalink)
-                    .description(htmlContent + mediumHtml)
-                    .build();
-            })
-            .collectList()
+        var rssItemMono = getMaxItems()
+            .flatMap(this::listItems)
             .doOnNext(builder::items)
             .subscribeOn(Schedulers.boundedElastic());
         return Mono.when(rssMono, rssItemMono)
             .then(Mono.fromSupplier(builder::build));
     }
 
-    private String processHtml(String html) {
-        var document = Jsoup.parse(html);
+    private RSS2.Item buildItem(MomentVo moment) {
+        var permalink = getMomentPermalink(moment);
+        return RSS2.Item.builder()
+            .title(buildMomentTitle(moment))
+            .link(externalLinkProcessor.processLink(permalink))
+            .pubDate(moment.getSpec().getReleaseTime())
+            .guid(permalink)
+            .description(feedHtmlRenderer.render(moment.getMetadata().getName(),
+                moment.getSpec().getContent()))
+            .build();
+    }
 
-        // Process all links
-        var links = document.select("a[href]");
-        for (Element link : links) {
-            var isTag = link.hasClass("tag");
-            String href = link.attr("href");
-            if (isTag && href.startsWith("?")) {
-                // 兼容旧版标签链接
-                href = "/moments" + href;
+    /**
+     * Lists the latest items of the feed, reloading the window if it is not loaded or its
+     * size changed, and otherwise applying the moments changed since the last call.
+     */
+    Mono<List<RSS2.Item>> listItems(int maxItems) {
+        Map<String, Moment> changes;
+        long generation;
+        synchronized (this) {
+            if (windowSize != maxItems) {
+                return reload(maxItems);
             }
-            var absoluteUrl = externalLinkProcessor.processLink(href);
-            link.attr("href", absoluteUrl);
+            changes = new LinkedHashMap<>(changedMoments);
+            changedMoments.clear();
+            generation = windowGeneration;
+        }
+        var listed = changes.values().stream()
+            .filter(MomentRssProvider::isListed)
+            .toList();
+        return buildEntries(listed)
+            .flatMap(entries -> {
+                synchronized (this) {
+                    if (generation != windowGeneration) {
+                        return Mono.<Void>empty();
+                    }
+                    changes.keySet().forEach(this::removeFromWindow);
+                    entries.forEach(this::putIntoWindow);
+                    return fillWindow(generation);
+                }
+            })
+            .then(Mono.fromSupplier(this::windowItems));
+    }
+
+    private Mono<List<RSS2.Item>> reload(int maxItems) {
+        long generation;
+        synchronized (this) {
+            generation = ++windowGeneration;
+            windowSize = maxItems;
+            window.clear();
+            windowKeys.clear();
+            windowOwners.clear();
+            // the reload reads them from the store
+            changedMoments.clear();
+            exhausted = false;
+        }
+        var listOptions = ListOptions.builder()
+            .andQuery(all(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME))
+            .build();
+        return client.listBy(Moment.class, listOptions,
+                PageRequestImpl.of(1, maxItems, WINDOW_SORT))
+            .flatMap(result -> buildEntries(result.getItems())
+                .doOnNext(entries -> {
+                    synchronized (this) {
+                        if (generation == windowGeneration) {
+                            entries.forEach(this::putIntoWindow);
+                            exhausted = result.getTotal() <= maxItems;
+                        }
+                    }
+                }))
+            .doOnError(e -> {
+                synchronized (this) {
+                    if (generation == windowGeneration) {
+                        // reload on next request
+                        windowSize = -1;
+                    }
+                }
+            })
+            .then(Mono.fromSupplier(this::windowItems));
+    }
+
+    /**
+     * Tops the window up with the moments older than its last item, if any moment left it.
+     * Must be called with the lock held.
+     */
+    private Mono<Void> fillWindow(long generation) {
+        var missing = windowSize - window.size();
+        if (exhausted || missing <= 0) {
+            return Mono.empty();
+        }
+        var listOptions = ListOptions.builder()
+            .andQuery(all(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME));
+        int ties = 0;
+        if (!window.isEmpty()) {
+            var lastReleaseTimeKey = window.lastKey().substring(0, RELEASE_TIME_KEY_LENGTH);
+            listOptions.andQuery(lessThanOrEqual(Moment.PUBLIC_RELEASE_TIME_KEY_INDEX_NAME,
+                lastReleaseTimeKey));
+            // moments released at the same time as the last item may already be in the window
+            ties = window.subMap(lastReleaseTimeKey + Character.MAX_VALUE, true,
+                lastReleaseTimeKey, true).size();
+        }
+        var pageSize = missing + ties;
+        var known = Set.copyOf(windowKeys.keySet());
+        return client.listBy(Moment.class, listOptions.build(),
+                PageRequestImpl.of(1, pageSize, WINDOW_SORT))
+            .flatMap(result -> buildEntries(result.getItems().stream()
+                    .filter(moment -> !known.contains(moment.getMetadata().getName()))
+                    .toList())
+                .doOnNext(entries -> {
+                    synchronized (this) {
+                        if (generation == windowGeneration) {
+                            entries.forEach(this::putIntoWindow);
+                            exhausted = result.getTotal() <= pageSize;
+                        }
+                    }
+                }))
+            .then();
+    }
+
+    private Mono<List<WindowEntry>> buildEntries(List<Moment> moments) {
+        if (moments.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return momentPublicQueryService.getMomentVos(moments)
+            .map(momentVos -> momentVos.stream()
+                .map(momentVo -> new WindowEntry(momentVo.getMetadata().getName(),
+                    momentVo.getSpec().getOwner(), windowKey(momentVo.getSpec().getReleaseTime(),
+                        momentVo.getMetadata().getName()),
+                    buildItem(momentVo)))
+                .toList());
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private void putIntoWindow(WindowEntry entry) {
+        removeFromWindow(entry.name());
+        if (window.size() >= windowSize && entry.key().compareTo(window.lastKey()) < 0) {
+            // older than the whole window
+            exhausted = false;
+            return;
+        }
+        window.put(entry.key(), entry.item());
+        windowKeys.put(entry.name(), entry.key());
+        windowOwners.put(entry.name(), entry.owner());
+        while (window.size() > windowSize) {
+            var evicted = window.pollLastEntry();
+            windowKeys.entrySet().removeIf(keyEntry -> {
+                if (!keyEntry.getValue().equals(evicted.getKey())) {
+                    return false;
+                }
+                windowOwners.remove(keyEntry.getKey());
+                return true;
+            });
+            exhausted = false;
+        }
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private void removeFromWindow(String name) {
+        var key = windowKeys.remove(name);
+        windowOwners.remove(name);
+        if (key != null) {
+            window.remove(key);
+        }
+    }
+
+    private synchronized List<RSS2.Item> windowItems() {
+        return List.copyOf(window.values());
+    }
+
+    @EventListener
+    public void onMomentUpdated(MomentUpdatedEvent event) {
+        onMomentChanged(event.getMomentName(), event.getMoment());
+    }
+
+    @EventListener
+    public void onMomentDeleted(MomentDeletedEvent event) {
+        onMomentChanged(event.getMomentName(), null);
+    }
+
+    @EventListener
+    public synchronized void onContributorUpdated(ContributorUpdatedEvent event) {
+        if (windowOwners.containsValue(event.getUsername())) {
+            // the display name in the titles may have changed
+            invalidateWindow();
         }
-        // process all images
-        var images = document.select("img[src]");
-        for (Element image : images) {
-            String src = image.attr("src");
-            var thumb = genThumbUrl(src, ThumbnailSize.M);
-            var absoluteUrl = externalLinkProcessor.processLink(thumb);
-            image.attr("src", absoluteUrl);
+    }
+
+    @EventListener
+    public synchronized void onConfigMapUpdated(ConfigMapUpdatedEvent event) {
+        if (SystemConfigUtils.SYSTEM_CONFIG_NAME.equals(event.getConfigMapName())) {
+            // the external URL of the links may have changed
+            invalidateWindow();
         }
-        return document.body().html();
     }
 
-    private String genThumbUrl(String url, ThumbnailSize size) {
-        return externalLinkProcessor.processLink(
-            "/apis/api.storage.halo.run/v1alpha1/thumbnails/-/via-uri?uri=" + url + "&size="
-                + size.name().toLowerCase()
-        );
+    /**
+     * Reloads the window on next request. Must be called with the lock held.
+     */
+    private void invalidateWindow() {
+        windowGeneration++;
+        windowSize = -1;
     }
 
-    private String generateMediaHtmlList(List<Moment.MomentMedia> medium) {
-        if (CollectionUtils.isEmpty(medium)) {
-            return "";
+    private synchronized void onMomentChanged(String name, @Nullable Moment moment) {
+        if (windowSize < 0) {
+            // not loaded yet
+            return;
         }
-        return medium.stream()
-            .map(this::generateSingleMediaHtml)
-            .collect(Collectors.joining());
-    }
-
-    private String generateSingleMediaHtml(Moment.MomentMedia media) {
-        var url = media.getUrl();
-        return switch (media.getType()) {
-            case PHOTO -> generatePhotoHtml(media);
-            case VIDEO ->
-                String.format("<video controls><source src=\"%s\" type=\"video/mp4\" /></video>",
-                    url);
-            case AUDIO ->
-                String.format("<audio controls><source src=\"%s\" type=\"audio/mpeg\" /></audio>",
-                    url);
-            case POST -> String.format("<a href=\"%s\">%s</a>", url, url);
-        };
-    }
-
-    private String generatePhotoHtml(Moment.MomentMedia media) {
-        // the best practice is to use the thumbnail for src
-        var mSrc = genThumbUrl(media.getUrl(), ThumbnailSize.M);
-        // If the reader does not support srcset, then only src,
-        var srcSet = """
-            %s 400w,
-            %s 800w,
-            %s 1200w,
-            """.formatted(
-            genThumbUrl(media.getUrl(), ThumbnailSize.S),
-            mSrc,
-            genThumbUrl(media.getUrl(), ThumbnailSize.L)
-        );
-        return String.format(
-            "<img src=\"%s\"%s alt=\"moment photo\" />",
-            mSrc,
-            srcSet
-        );
+        changedMoments.remove(name);
+        changedMoments.put(name, moment);
+    }
+
+    private static boolean isListed(@Nullable Moment moment) {
+        return moment != null && !ExtensionUtil.isDeleted(moment) && moment.isApproved()
+            && moment.isPubliclyVisible() && moment.getSpec().getReleaseTime() != null;
+    }
+
+    /**
+     * Orders the window by release time and name, consistently with {@link #WINDOW_SORT}.
+     */
+    private static String windowKey(Instant releaseTime, String name) {
+        return Moment.releaseTimeKey(releaseTime) + name;
+    }
+
+    Mono<Integer> getMaxItems() {
+        return this.settingFetcher.get("base")
+            .map(setting -> setting.path("rssMaxItems").asInt(DEFAULT_MAX_ITEMS))
+            .filter(maxItems -> maxItems > 0)
+            .defaultIfEmpty(DEFAULT_MAX_ITEMS);
     }
 
     private static <T> List<T> nullSafeList(List<T> list) {
@@ -197,4 +412,7 @@ public class MomentRssProvider implements RssRouteItem {
             .map(setting -> setting.get("title").asText("瞬间"))
             .defaultIfEmpty("瞬间");
     }
+
+    record WindowEntry(String name, String owner, String key, RSS2.Item item) {
+    }
 }
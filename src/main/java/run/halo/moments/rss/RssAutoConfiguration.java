@@ -1,6 +1,11 @@
 package run.halo.moments.rss;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
@@ -17,7 +22,7 @@ import run.halo.feed.CacheClearRule;
 import run.halo.feed.RssCacheClearRequested;
 import run.halo.moments.event.MomentDeletedEvent;
 import run.halo.moments.event.MomentUpdatedEvent;
-import run.halo.moments.finders.MomentFinder;
+import run.halo.moments.finders.MomentPublicQueryService;
 
 @Configuration
 @ConditionalOnClass(name = "run.halo.feed.RssRouteItem")
@@ -27,14 +32,24 @@ public class RssAutoConfiguration {
     private final ExternalLinkProcessor externalLinkProcessor;
     private final ReactiveExtensionClient client;
     private final ReactiveSettingFetcher settingFetcher;
-    private final MomentFinder momentFinder;
+    private final MomentPublicQueryService momentPublicQueryService;
     private final SystemInfoGetter systemInfoGetter;
     private final ApplicationEventPublisher eventPublisher;
 
     @Bean
-    MomentRssProvider momentRssProvider() {
+    MomentFeedHtmlRenderer momentFeedHtmlRenderer(ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${moments.feed-html-cache.maximum-size:256}") int maximumSize,
+        @Value("${moments.feed-html-cache.time-to-live-seconds:86400}") long timeToLive) {
+        return new MomentFeedHtmlRenderer(externalUrlSupplier, externalLinkProcessor,
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), maximumSize,
+            Duration.ofSeconds(timeToLive));
+    }
+
+    @Bean
+    MomentRssProvider momentRssProvider(MomentFeedHtmlRenderer momentFeedHtmlRenderer) {
         return new MomentRssProvider(externalUrlSupplier, externalLinkProcessor, client,
-                settingFetcher, momentFinder, systemInfoGetter);
+                settingFetcher, momentPublicQueryService, systemInfoGetter,
+                momentFeedHtmlRenderer);
     }
 
     @Async
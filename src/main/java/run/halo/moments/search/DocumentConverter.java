@@ -2,20 +2,27 @@ package run.halo.moments.search;
 
 import static run.halo.moments.search.MomentHaloDocumentsProvider.MOMENT_DOCUMENT_TYPE;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
-import run.halo.app.core.extension.User;
-import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.infra.ExternalUrlSupplier;
 import run.halo.app.search.HaloDocument;
 import run.halo.moments.Moment;
+import run.halo.moments.service.ContributorService;
+import run.halo.moments.vo.ContributorVo;
 
 /**
  * @author LIlGG
@@ -24,7 +31,12 @@ import run.halo.moments.Moment;
 @RequiredArgsConstructor
 public class DocumentConverter implements Converter<Moment, Mono<HaloDocument>> {
 
-    private final ReactiveExtensionClient client;
+    /**
+     * Annotation holding the {@link #searchDigest(Moment)} the moment was last indexed with.
+     */
+    public static final String SEARCH_DIGEST_ANNO = "moment.halo.run/search-digest";
+
+    private final ContributorService contributorService;
 
     private final ExternalUrlSupplier externalUrlSupplier;
 
@@ -58,9 +70,42 @@ public class DocumentConverter implements Converter<Moment, Mono<HaloDocument>>
         return MOMENT_DOCUMENT_TYPE + '-' + moment.getMetadata().getName();
     }
 
+    /**
+     * Computes the digest of the fields of the given moment that are written to its search
+     * document, that is the content, tags, owner, visibility and release time.
+     */
+    public static String searchDigest(Moment moment) {
+        var spec = moment.getSpec();
+        var content = spec.getContent();
+        var tags = spec.getTags() == null ? List.<String>of()
+            : spec.getTags().stream().sorted().toList();
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Stream.of(content == null ? null : content.getHtml(), tags, spec.getOwner(),
+                spec.getVisible(), spec.getReleaseTime())
+            .forEach(value -> {
+                messageDigest.update(Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            });
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    /**
+     * Whether the search document of the given moment is outdated, or was never indexed.
+     */
+    public static boolean requiresSearchSync(Moment moment) {
+        var annotations = moment.getMetadata().getAnnotations();
+        var indexedDigest = annotations == null ? null : annotations.get(SEARCH_DIGEST_ANNO);
+        return !searchDigest(moment).equals(indexedDigest);
+    }
+
     private Mono<String> getTitle(Moment moment) {
-        return client.fetch(User.class, moment.getSpec().getOwner())
-            .map(user -> user.getSpec().getDisplayName())
+        return contributorService.getContributor(moment.getSpec().getOwner())
+            .map(ContributorVo::getDisplayName)
             .map(displayName -> {
                 ZonedDateTime zonedDateTime =
                     moment.getSpec().getReleaseTime().atZone(ZoneId.systemDefault());
@@ -2,10 +2,15 @@ package run.halo.moments.search;
 
 import static run.halo.moments.ModelConst.SEARCH_DEFAULT_PAGE_SIZE;
 
-import lombok.RequiredArgsConstructor;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.PageRequest;
@@ -18,10 +23,15 @@ import run.halo.app.search.HaloDocumentsProvider;
 import run.halo.moments.Moment;
 
 /**
+ * <p>Provides the approved and not deleted moments as search documents.</p>
+ * <p>{@link #fetchAll()} scans the moments page by page in name order, seeking each page
+ * after the last name of the previous one, and converts up to
+ * {@code moments.search.convert-concurrency} moments at the same time. Pages are fetched on
+ * demand of the consumer, so a full rebuild runs in bounded memory.</p>
+ *
  * @author LIlGG
  */
 @Component
-@RequiredArgsConstructor
 public class MomentHaloDocumentsProvider implements HaloDocumentsProvider {
 
     public static final String MOMENT_DOCUMENT_TYPE = "moment.moment.halo.run";
@@ -30,18 +40,44 @@ public class MomentHaloDocumentsProvider implements HaloDocumentsProvider {
 
     private final DocumentConverter converter;
 
+    private final int concurrency;
+
+    public MomentHaloDocumentsProvider(ReactiveExtensionClient client,
+        DocumentConverter converter,
+        @Value("${moments.search.convert-concurrency:8}") int concurrency) {
+        Assert.isTrue(concurrency > 0, "The concurrency must be greater than 0.");
+        this.client = client;
+        this.converter = converter;
+        this.concurrency = concurrency;
+    }
+
     @Override
     public Flux<HaloDocument> fetchAll() {
+        return fetchPage(null)
+            .expand(page -> page.size() < SEARCH_DEFAULT_PAGE_SIZE ? Mono.empty()
+                : fetchPage(page.get(page.size() - 1).getMetadata().getName()))
+            .concatMapIterable(Function.identity())
+            .flatMapSequential(converter::convert, concurrency);
+    }
+
+    /**
+     * Fetches the page of moments following the given name.
+     *
+     * @param lastName name of the last moment of the previous page, null for the first page
+     */
+    private Mono<List<Moment>> fetchPage(@Nullable String lastName) {
         var options = new ListOptions();
         var notDeleted = QueryFactory.isNull("metadata.deletionTimestamp");
         var approved = QueryFactory.equal("spec.approved", "true");
-        options.setFieldSelector(FieldSelector.of(notDeleted).andQuery(approved));
-        var pageRequest = createPageRequest();
         // make sure the moments are approved and not deleted.
-        return client.listBy(Moment.class, options, pageRequest)
-            .map(ListResult::getItems)
-            .flatMapMany(Flux::fromIterable)
-            .flatMap(converter::convert);
+        var fieldSelector = FieldSelector.of(notDeleted).andQuery(approved);
+        if (lastName != null) {
+            fieldSelector = fieldSelector.andQuery(
+                QueryFactory.greaterThan("metadata.name", lastName));
+        }
+        options.setFieldSelector(fieldSelector);
+        return client.listBy(Moment.class, options, createPageRequest())
+            .map(ListResult::getItems);
     }
 
     @Override
@@ -50,7 +86,6 @@ public class MomentHaloDocumentsProvider implements HaloDocumentsProvider {
     }
 
     private PageRequest createPageRequest() {
-        return PageRequestImpl.of(1, SEARCH_DEFAULT_PAGE_SIZE,
-            Sort.by("metadata.creationTimestamp", "metadata.name"));
+        return PageRequestImpl.of(1, SEARCH_DEFAULT_PAGE_SIZE, Sort.by("metadata.name"));
     }
 }
@@ -0,0 +1,160 @@
+package run.halo.moments.search;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import run.halo.app.search.event.HaloDocumentAddRequestEvent;
+import run.halo.app.search.event.HaloDocumentDeleteRequestEvent;
+import run.halo.moments.Moment;
+
+/**
+ * <p>Coalesces search index updates of moments into batches.</p>
+ * <p>Requests are buffered for at most {@code moments.search.batch-window-millis} or until
+ * {@code moments.search.batch-size} requests are buffered. Only the latest request per search
+ * document is kept, and each batch is published as at most one
+ * {@link HaloDocumentDeleteRequestEvent} and one {@link HaloDocumentAddRequestEvent}, so bulk
+ * approvals and imports do not turn into one index commit per moment.</p>
+ * <p>Only persisted moments are requested, whose {@link DocumentConverter#SEARCH_DIGEST_ANNO}
+ * was recorded by {@link run.halo.moments.MomentReconciler} in the same write. A moment that
+ * fails to convert is logged and indexed again on its next change.</p>
+ */
+@Slf4j
+@Component
+public class MomentSearchBatcher implements InitializingBean, DisposableBean {
+
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DocumentConverter converter;
+
+    private final int batchSize;
+
+    private final Duration batchWindow;
+
+    private final int concurrency;
+
+    private final Sinks.Many<IndexRequest> requests =
+        Sinks.many().unicast().onBackpressureBuffer();
+
+    /**
+     * Completes once the last batch is published after the requests complete.
+     */
+    private CompletableFuture<Void> completion;
+
+    public MomentSearchBatcher(ApplicationEventPublisher eventPublisher,
+        DocumentConverter converter,
+        @Value("${moments.search.batch-size:100}") int batchSize,
+        @Value("${moments.search.batch-window-millis:500}") long batchWindow,
+        @Value("${moments.search.convert-concurrency:8}") int concurrency) {
+        Assert.isTrue(batchSize > 0, "The batch size must be greater than 0.");
+        Assert.isTrue(batchWindow > 0, "The batch window must be greater than 0.");
+        Assert.isTrue(concurrency > 0, "The concurrency must be greater than 0.");
+        this.eventPublisher = eventPublisher;
+        this.converter = converter;
+        this.batchSize = batchSize;
+        this.batchWindow = Duration.ofMillis(batchWindow);
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Requests the given moment to be added to or updated in the search index.
+     */
+    public void add(Moment moment) {
+        emit(new IndexRequest(converter.haloDocId(moment), moment));
+    }
+
+    /**
+     * Requests the given moment to be removed from the search index.
+     */
+    public void delete(Moment moment) {
+        emit(new IndexRequest(converter.haloDocId(moment), null));
+    }
+
+    private void emit(IndexRequest request) {
+        // reconciler workers may emit concurrently
+        requests.emitNext(request, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        completion = requests.asFlux()
+            // only requests batches as fast as they are published, instead of overflowing
+            .bufferTimeout(batchSize, batchWindow, true)
+            .concatMap(batch -> publish(batch)
+                .onErrorResume(e -> {
+                    log.error("Failed to update the search index of {} moments",
+                        batch.size(), e);
+                    return Mono.empty();
+                }))
+            .then()
+            .toFuture();
+    }
+
+    @Override
+    public void destroy() {
+        // publishes the buffered requests and completes the subscription
+        requests.tryEmitComplete();
+        try {
+            completion.get(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to publish the pending search index updates before shutdown", e);
+        }
+    }
+
+    private Mono<Void> publish(List<IndexRequest> batch) {
+        var latest = new LinkedHashMap<String, IndexRequest>();
+        batch.forEach(request -> {
+            // keep the position of the latest request
+            latest.remove(request.haloDocId());
+            latest.put(request.haloDocId(), request);
+        });
+        var deletedIds = latest.values().stream()
+            .filter(request -> request.moment() == null)
+            .map(IndexRequest::haloDocId)
+            .toList();
+        if (!deletedIds.isEmpty()) {
+            eventPublisher.publishEvent(new HaloDocumentDeleteRequestEvent(this, deletedIds));
+        }
+        return Flux.fromIterable(latest.values())
+            .filter(request -> request.moment() != null)
+            .flatMapSequential(request -> converter.convert(request.moment())
+                .onErrorResume(e -> {
+                    log.warn("Failed to convert moment {} to a search document",
+                        request.moment().getMetadata().getName(), e);
+                    return Mono.empty();
+                }), concurrency)
+            .collectList()
+            .filter(haloDocs -> !haloDocs.isEmpty())
+            .doOnNext(haloDocs -> eventPublisher.publishEvent(
+                new HaloDocumentAddRequestEvent(this, haloDocs)))
+            .then();
+    }
+
+    /**
+     * A request to update the search document of a moment.
+     *
+     * @param moment the moment to index, null to remove the document
+     */
+    record IndexRequest(String haloDocId, @Nullable Moment moment) {
+    }
+}
@@ -0,0 +1,35 @@
+package run.halo.moments.service;
+
+import java.util.Collection;
+import java.util.Map;
+import reactor.core.publisher.Mono;
+import run.halo.moments.vo.ContributorVo;
+
+/**
+ * Service for resolving the owners of moments.
+ */
+public interface ContributorService {
+
+    /**
+     * Resolves the contributors of the given usernames with a single query.
+     *
+     * @param usernames usernames to resolve, blank and duplicated names are ignored
+     * @return a map of username to contributor, users that do not exist are absent
+     */
+    Mono<Map<String, ContributorVo>> getContributors(Collection<String> usernames);
+
+    /**
+     * Resolves the contributor of the given username.
+     *
+     * @param username username to resolve
+     * @return the contributor or empty if the user does not exist
+     */
+    Mono<ContributorVo> getContributor(String username);
+
+    /**
+     * Discards the cached contributor of the given username.
+     *
+     * @param username username of the changed user
+     */
+    void invalidate(String username);
+}
@@ -0,0 +1,130 @@
+package run.halo.moments.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.moments.Moment;
+import run.halo.moments.MomentFields;
+import run.halo.moments.Stats;
+import run.halo.moments.vo.ContributorVo;
+
+/**
+ * <p>Enriches moments with their owners and stats.</p>
+ * <p>Moments are split into batches of {@code moments.enrichment.batch-size}, the owners and
+ * stats of a batch are resolved with one query each, and up to
+ * {@code moments.enrichment.concurrency} batches are resolved at the same time. The order of
+ * the given moments is always kept.</p>
+ */
+@Component
+public class MomentEnricher {
+
+    private final ContributorService contributorService;
+
+    private final MomentStatsService momentStatsService;
+
+    private final int batchSize;
+
+    private final int concurrency;
+
+    public MomentEnricher(ContributorService contributorService,
+        MomentStatsService momentStatsService,
+        @Value("${moments.enrichment.batch-size:50}") int batchSize,
+        @Value("${moments.enrichment.concurrency:4}") int concurrency) {
+        Assert.isTrue(batchSize > 0, "The batch size must be greater than 0.");
+        Assert.isTrue(concurrency > 0, "The concurrency must be greater than 0.");
+        this.contributorService = contributorService;
+        this.momentStatsService = momentStatsService;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Enriches the given moments and maps them with the given mapper.
+     *
+     * @param moments moments to enrich
+     * @param fields requested fields, owners and stats are only resolved if requested
+     * @param mapper mapper to convert an enriched moment to the result
+     * @return the results in the same order as the given moments
+     */
+    public <T> Flux<T> enrich(Flux<Moment> moments, MomentFields fields,
+        Function<EnrichedMoment, T> mapper) {
+        return moments.buffer(batchSize)
+            .flatMapSequential(batch -> enrichBatch(batch, fields, mapper), concurrency)
+            .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Enriches the given moments and maps them with the given mapper.
+     *
+     * @param moments moments to enrich
+     * @param fields requested fields, owners and stats are only resolved if requested
+     * @param mapper mapper to convert an enriched moment to the result
+     * @return the results in the same order as the given moments
+     */
+    public <T> Mono<List<T>> enrich(List<Moment> moments, MomentFields fields,
+        Function<EnrichedMoment, T> mapper) {
+        if (moments.size() <= batchSize) {
+            return enrichBatch(moments, fields, mapper);
+        }
+        return enrich(Flux.fromIterable(moments), fields, mapper).collectList();
+    }
+
+    private <T> Mono<List<T>> enrichBatch(List<Moment> moments, MomentFields fields,
+        Function<EnrichedMoment, T> mapper) {
+        if (moments.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.zip(getContributors(moments, fields), getStats(moments, fields))
+            .map(tuple -> {
+                var contributors = tuple.getT1();
+                var stats = tuple.getT2();
+                var statsRequested = fields.includes(MomentFields.Field.STATS);
+                return moments.stream()
+                    .map(moment -> new EnrichedMoment(moment,
+                        contributors.get(moment.getSpec().getOwner()),
+                        statsRequested ? Objects.requireNonNullElseGet(
+                            stats.get(moment.getMetadata().getName()), Stats::empty) : null)
+                    )
+                    .map(mapper)
+                    .toList();
+            });
+    }
+
+    private Mono<Map<String, ContributorVo>> getContributors(List<Moment> moments,
+        MomentFields fields) {
+        if (!fields.includes(MomentFields.Field.OWNER)) {
+            return Mono.just(Map.of());
+        }
+        var owners = moments.stream()
+            .map(moment -> moment.getSpec().getOwner())
+            .collect(Collectors.toSet());
+        return contributorService.getContributors(owners);
+    }
+
+    private Mono<Map<String, Stats>> getStats(List<Moment> moments, MomentFields fields) {
+        if (!fields.includes(MomentFields.Field.STATS)) {
+            return Mono.just(Map.of());
+        }
+        var momentNames = moments.stream()
+            .map(moment -> moment.getMetadata().getName())
+            .toList();
+        return momentStatsService.getStats(momentNames);
+    }
+
+    /**
+     * A moment with its resolved owner and stats.
+     *
+     * @param moment the moment
+     * @param owner the owner of the moment, null if the owner does not exist or is not requested
+     * @param stats the stats of the moment, null if not requested
+     */
+    public record EnrichedMoment(Moment moment, ContributorVo owner, Stats stats) {
+    }
+}
@@ -1,10 +1,12 @@
 package run.halo.moments.service;
 
+import org.springframework.lang.Nullable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 import run.halo.moments.ListedMoment;
 import run.halo.moments.Moment;
+import run.halo.moments.MomentFields;
 import run.halo.moments.MomentQuery;
 
 /**
@@ -16,9 +18,33 @@ import run.halo.moments.MomentQuery;
 public interface MomentService {
     Mono<ListResult<ListedMoment>> listMoment(MomentQuery query);
 
+    /**
+     * Lists moments by the given query with their owners and stats resolved, without building
+     * the listed moments yet, e.g. to check an entity tag first.
+     *
+     * @param query the query
+     * @return a list of enriched moments
+     */
+    Mono<ListResult<MomentEnricher.EnrichedMoment>> listEnrichedMoments(MomentQuery query);
+
+    /**
+     * Builds the listed moments of the given enriched moments, only including the requested
+     * fields.
+     */
+    ListResult<ListedMoment> toListedMoments(ListResult<MomentEnricher.EnrichedMoment> result,
+        MomentFields fields);
+
     Mono<Moment> create(Moment moment);
 
-    Flux<String> listAllTags(MomentQuery query);
+    /**
+     * Lists the tags of all moments of the given owner for autocompletion.
+     *
+     * @param ownerName the owner, null for all owners
+     * @param keyword case-insensitive keyword, tags starting with it are ranked first
+     * @param limit maximum number of tags to return
+     * @return the matched tags ordered by rank and moment count
+     */
+    Flux<String> listTags(@Nullable String ownerName, @Nullable String keyword, int limit);
 
     Mono<ListedMoment> findMomentByName(String name);
 
@@ -0,0 +1,39 @@
+package run.halo.moments.service;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.Counter;
+import run.halo.moments.Stats;
+
+/**
+ * Service for loading the {@link Stats} of moments.
+ */
+public interface MomentStatsService {
+
+    /**
+     * Loads the stats of the given moments with a single counter query.
+     *
+     * @param momentNames names of the moments
+     * @return a map of moment name to stats, {@link Stats#empty()} for moments without counter
+     */
+    Mono<Map<String, Stats>> getStats(Collection<String> momentNames);
+
+    /**
+     * Loads the stats of the given moment.
+     *
+     * @param momentName name of the moment
+     * @return the stats of the moment or {@link Stats#empty()} if no counter exists
+     */
+    Mono<Stats> getStats(String momentName);
+
+    /**
+     * Writes the latest stats of the given moment through to the cache.
+     *
+     * @param momentName name of the moment
+     * @param counter the changed counter of the moment, null if the counter was deleted
+     * @return true if the stats differ from the cached ones or nothing was cached
+     */
+    boolean updateStats(String momentName, @Nullable Counter counter);
+}
@@ -0,0 +1,113 @@
+package run.halo.moments.service.impl;
+
+import static run.halo.app.extension.index.query.QueryFactory.in;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.User;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.service.ContributorService;
+import run.halo.moments.util.ExpiringLruCache;
+import run.halo.moments.vo.ContributorVo;
+
+/**
+ * <p>Default implementation of {@link ContributorService}.</p>
+ * <p>Resolved contributors are kept in a bounded cache, which is invalidated by
+ * {@link run.halo.moments.UserReconciler} whenever a user changes. Users loaded before an
+ * invalidation are returned but not cached, as they may predate the change.</p>
+ */
+@Component
+public class DefaultContributorService implements ContributorService {
+
+    private final ReactiveExtensionClient client;
+
+    private final ExpiringLruCache<String, ContributorVo> cache;
+
+    /**
+     * Incremented on every invalidation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public DefaultContributorService(ReactiveExtensionClient client,
+        ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${moments.contributor-cache.maximum-size:1024}") int maximumSize,
+        @Value("${moments.contributor-cache.time-to-live-seconds:1800}") long timeToLive) {
+        this.client = client;
+        this.cache = new ExpiringLruCache<>("contributor", maximumSize,
+            Duration.ofSeconds(timeToLive),
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Override
+    public Mono<Map<String, ContributorVo>> getContributors(Collection<String> usernames) {
+        var result = new HashMap<String, ContributorVo>();
+        var missed = new HashSet<String>();
+        usernames.stream()
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .forEach(name -> {
+                var contributor = cache.get(name);
+                if (contributor == null) {
+                    missed.add(name);
+                } else {
+                    result.put(name, contributor);
+                }
+            });
+        if (missed.isEmpty()) {
+            return Mono.just(result);
+        }
+        // resolve all missed owners through the metadata.name index at once
+        var loadedGeneration = generation.get();
+        var listOptions = ListOptions.builder()
+            .andQuery(in("metadata.name", missed))
+            .build();
+        return client.listAll(User.class, listOptions, Sort.unsorted())
+            .map(ContributorVo::from)
+            .doOnNext(contributor -> cacheLoaded(loadedGeneration, contributor.getName(),
+                contributor))
+            .collect(() -> result, (map, contributor) -> map.put(contributor.getName(),
+                contributor));
+    }
+
+    @Override
+    public Mono<ContributorVo> getContributor(String username) {
+        if (StringUtils.isBlank(username)) {
+            return Mono.empty();
+        }
+        var contributor = cache.get(username);
+        if (contributor != null) {
+            return Mono.just(contributor);
+        }
+        var loadedGeneration = generation.get();
+        return client.fetch(User.class, username)
+            .map(ContributorVo::from)
+            .doOnNext(vo -> cacheLoaded(loadedGeneration, username, vo));
+    }
+
+    @Override
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        cache.invalidate(username);
+    }
+
+    private void cacheLoaded(long loadedGeneration, String username, ContributorVo contributor) {
+        cache.put(username, contributor);
+        if (generation.get() != loadedGeneration) {
+            // invalidated while loading
+            cache.invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package run.halo.moments.service.impl;
+
+import static run.halo.app.extension.index.query.QueryFactory.in;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.Counter;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+import run.halo.moments.Stats;
+import run.halo.moments.service.MomentStatsService;
+import run.halo.moments.util.ExpiringLruCache;
+import run.halo.moments.util.MeterUtils;
+
+/**
+ * <p>Default implementation of {@link MomentStatsService}.</p>
+ * <p>Stats are cached by moment name. Missing entries are loaded from their counters, and
+ * {@link run.halo.moments.CounterReconciler} writes the latest stats through to the cache
+ * whenever a moment counter changes. Loaded stats never replace stats written meanwhile, as
+ * the counter may have changed after it was read.</p>
+ */
+@Component
+public class DefaultMomentStatsService implements MomentStatsService {
+
+    private final ReactiveExtensionClient client;
+
+    private final ExpiringLruCache<String, Stats> cache;
+
+    public DefaultMomentStatsService(ReactiveExtensionClient client,
+        ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${moments.stats-cache.maximum-size:10000}") int maximumSize,
+        @Value("${moments.stats-cache.time-to-live-seconds:3600}") long timeToLive) {
+        this.client = client;
+        this.cache = new ExpiringLruCache<>("stats", maximumSize,
+            Duration.ofSeconds(timeToLive),
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Override
+    public Mono<Map<String, Stats>> getStats(Collection<String> momentNames) {
+        var result = new HashMap<String, Stats>();
+        // counter name -> moment name
+        var missed = new HashMap<String, String>();
+        momentNames.stream()
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .forEach(name -> {
+                var stats = cache.get(name);
+                if (stats == null) {
+                    missed.put(MeterUtils.nameOf(Moment.class, name), name);
+                } else {
+                    result.put(name, stats);
+                }
+            });
+        if (missed.isEmpty()) {
+            return Mono.just(result);
+        }
+        var listOptions = ListOptions.builder()
+            .andQuery(in("metadata.name", missed.keySet()))
+            .build();
+        return client.listAll(Counter.class, listOptions, Sort.unsorted())
+            .collectMap(counter -> missed.get(counter.getMetadata().getName()),
+                DefaultMomentStatsService::toStats)
+            .map(statsMap -> {
+                missed.values().forEach(name -> {
+                    var stats = statsMap.getOrDefault(name, Stats.empty());
+                    result.put(name, cache.putIfAbsent(name, stats));
+                });
+                return result;
+            });
+    }
+
+    @Override
+    public Mono<Stats> getStats(String momentName) {
+        var stats = cache.get(momentName);
+        if (stats != null) {
+            return Mono.just(stats);
+        }
+        return client.fetch(Counter.class, MeterUtils.nameOf(Moment.class, momentName))
+            .map(DefaultMomentStatsService::toStats)
+            .defaultIfEmpty(Stats.empty())
+            .map(loaded -> cache.putIfAbsent(momentName, loaded));
+    }
+
+    @Override
+    public boolean updateStats(String momentName, Counter counter) {
+        var stats = counter == null ? Stats.empty() : toStats(counter);
+        var previous = cache.peek(momentName);
+        cache.put(momentName, stats);
+        return !stats.equals(previous);
+    }
+
+    static Stats toStats(Counter counter) {
+        return Stats.builder()
+            .upvote(counter.getUpvote())
+            .totalComment(counter.getTotalComment())
+            .approvedComment(counter.getApprovedComment())
+            .build();
+    }
+}
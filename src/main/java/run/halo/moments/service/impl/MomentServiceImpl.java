@@ -1,9 +1,19 @@
 package run.halo.moments.service.impl;
 
+import static run.halo.app.extension.index.query.QueryFactory.and;
+import static run.halo.app.extension.index.query.QueryFactory.contains;
+import static run.halo.app.extension.index.query.QueryFactory.in;
+import static run.halo.app.extension.index.query.QueryFactory.not;
+
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -11,19 +21,21 @@ import org.springframework.util.Assert;
 import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import run.halo.app.core.extension.Counter;
 import run.halo.app.core.extension.User;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
+import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.moments.Contributor;
 import run.halo.moments.ListedMoment;
 import run.halo.moments.Moment;
+import run.halo.moments.MomentFields;
 import run.halo.moments.MomentQuery;
-import run.halo.moments.Stats;
 import run.halo.moments.exception.NotFoundException;
+import run.halo.moments.index.MomentKeywordIndex;
+import run.halo.moments.index.MomentTagIndex;
+import run.halo.moments.service.MomentEnricher;
 import run.halo.moments.service.MomentService;
-import run.halo.moments.util.MeterUtils;
 
 /**
  * Listed moment.
@@ -36,20 +48,133 @@ import run.halo.moments.util.MeterUtils;
 @RequiredArgsConstructor
 public class MomentServiceImpl implements MomentService {
 
+    private static final Sort OWNER_MATCH_SORT =
+        Sort.by(Moment.RELEASE_TIME_KEY_INDEX_NAME, "metadata.name").descending();
+
     private final ReactiveExtensionClient client;
 
+    private final MomentEnricher momentEnricher;
+
+    private final MomentTagIndex momentTagIndex;
+
+    private final MomentKeywordIndex momentKeywordIndex;
+
     @Override
     public Mono<ListResult<ListedMoment>> listMoment(MomentQuery query) {
-        return client.listBy(Moment.class, query.toListOptions(), query.toPageRequest())
-            .flatMap(listResult -> Flux.fromStream(listResult.get())
-                .concatMap(this::toListedMoment)
-                .collectList()
+        return listEnrichedMoments(query)
+            .map(result -> toListedMoments(result, query.getFields()));
+    }
+
+    @Override
+    public Mono<ListResult<MomentEnricher.EnrichedMoment>> listEnrichedMoments(
+        MomentQuery query) {
+        return listMoments(query)
+            .flatMap(listResult -> momentEnricher.enrich(listResult.getItems(),
+                    query.getFields(), Function.identity())
                 .map(list -> new ListResult<>(listResult.getPage(), listResult.getSize(),
                     listResult.getTotal(), list)
                 )
             );
     }
 
+    @Override
+    public ListResult<ListedMoment> toListedMoments(
+        ListResult<MomentEnricher.EnrichedMoment> result, MomentFields fields) {
+        return new ListResult<>(result.getPage(), result.getSize(), result.getTotal(),
+            result.getItems().stream()
+                .map(enriched -> toListedMoment(enriched, fields))
+                .toList());
+    }
+
+    private Mono<ListResult<Moment>> listMoments(MomentQuery query) {
+        if (StringUtils.isBlank(query.getKeyword())) {
+            return client.listBy(Moment.class, query.toListOptions(), query.toPageRequest());
+        }
+        return momentKeywordIndex.search(query.getKeyword())
+            .flatMap(keywordMatches -> {
+                if (query.isRankedByKeyword()) {
+                    return listRankedMoments(query, keywordMatches);
+                }
+                return client.listBy(Moment.class, query.toListOptions(keywordMatches),
+                    query.toPageRequest());
+            });
+    }
+
+    /**
+     * Lists the moments matching the query ordered by keyword relevance, moments only matched
+     * by owner follow the ranked ones by release time. The matches of the keyword index are
+     * bounded, so only they are ordered in memory, while the owner matches are paged by the
+     * indexes.
+     */
+    private Mono<ListResult<Moment>> listRankedMoments(MomentQuery query,
+        List<String> keywordMatches) {
+        var ranks = new HashMap<String, Integer>();
+        for (int i = 0; i < keywordMatches.size(); i++) {
+            ranks.put(keywordMatches.get(i), i);
+        }
+        var rankedMono = keywordMatches.isEmpty() ? Mono.just(List.<Moment>of())
+            : client.listAll(Moment.class,
+                    query.toListOptions(in("metadata.name", keywordMatches)), Sort.unsorted())
+                .sort(Comparator.comparingInt(
+                    moment -> ranks.get(moment.getMetadata().getName())))
+                .collectList();
+        var ownerQuery = contains("spec.owner", query.getKeyword());
+        if (!keywordMatches.isEmpty()) {
+            ownerQuery = and(ownerQuery, not(in("metadata.name", keywordMatches)));
+        }
+        var ownerOptions = query.toListOptions(ownerQuery);
+        var page = Math.max(query.getPage(), 1);
+        var size = query.getSize();
+        return rankedMono.flatMap(ranked -> {
+            if (size <= 0) {
+                return client.listAll(Moment.class, ownerOptions, OWNER_MATCH_SORT)
+                    .collectList()
+                    .map(owned -> {
+                        var items = new ArrayList<>(ranked);
+                        items.addAll(owned);
+                        return new ListResult<>(page, size, items.size(), items);
+                    });
+            }
+            var from = (long) (page - 1) * size;
+            var rankedItems = ranked.subList((int) Math.min(from, ranked.size()),
+                (int) Math.min(from + size, ranked.size()));
+            var ownerOffset = Math.max(0, from - ranked.size());
+            return listSlice(ownerOptions, ownerOffset, size - rankedItems.size(), size)
+                .map(owned -> {
+                    var items = new ArrayList<>(rankedItems);
+                    items.addAll(owned.getItems());
+                    return new ListResult<>(page, size, ranked.size() + owned.getTotal(),
+                        items);
+                });
+        });
+    }
+
+    /**
+     * Lists at most {@code limit} moments from the given offset in {@link #OWNER_MATCH_SORT}
+     * order, reading the at most two pages of the given size that cover them.
+     */
+    private Mono<ListResult<Moment>> listSlice(ListOptions listOptions, long offset, int limit,
+        int pageSize) {
+        var pageNumber = (int) (offset / pageSize) + 1;
+        var skip = (int) (offset % pageSize);
+        return client.listBy(Moment.class, listOptions,
+                PageRequestImpl.of(pageNumber, pageSize, OWNER_MATCH_SORT))
+            .flatMap(first -> {
+                if (skip + limit <= pageSize || !first.hasNext()) {
+                    return Mono.just(List.of(first));
+                }
+                return client.listBy(Moment.class, listOptions,
+                        PageRequestImpl.of(pageNumber + 1, pageSize, OWNER_MATCH_SORT))
+                    .map(second -> List.of(first, second));
+            })
+            .map(pages -> new ListResult<>(pageNumber, pageSize, pages.get(0).getTotal(),
+                pages.stream()
+                    .flatMap(result -> result.getItems().stream())
+                    .skip(skip)
+                    .limit(limit)
+                    .toList()));
+    }
+
     @Override
     public Mono<Moment> create(Moment moment) {
         if (Objects.isNull(moment.getSpec().getReleaseTime())) {
@@ -68,14 +193,10 @@ public class MomentServiceImpl implements MomentService {
     }
 
     @Override
-    public Flux<String> listAllTags(MomentQuery query) {
-        return client.listAll(Moment.class, query.toListOptions(),
-                Sort.by("metadata.name").descending())
-            .flatMapIterable(moment -> {
-                var tags = moment.getSpec().getTags();
-                return Objects.requireNonNullElseGet(tags, List::of);
-            })
-            .distinct();
+    public Flux<String> listTags(String ownerName, String keyword, int limit) {
+        return momentTagIndex.listOwnerTags(ownerName, keyword, limit)
+            .flatMapIterable(Function.identity())
+            .map(MomentTagIndex.TagCount::name);
     }
 
     @Override
@@ -103,40 +224,20 @@ public class MomentServiceImpl implements MomentService {
     }
 
     private Mono<ListedMoment> toListedMoment(Moment moment) {
-        ListedMoment.ListedMomentBuilder momentBuilder = ListedMoment.builder()
-            .moment(moment);
-        return Mono.just(momentBuilder)
-            .map(ListedMoment.ListedMomentBuilder::build)
-            .flatMap(lm -> fetchStats(moment)
-                .doOnNext(lm::setStats)
-                .thenReturn(lm))
-            .flatMap(lm -> setOwner(moment.getSpec().getOwner(), lm));
-    }
-
-    private Mono<ListedMoment> setOwner(String owner, ListedMoment moment) {
-        return client.fetch(User.class, owner)
-            .map(user -> {
-                Contributor contributor = new Contributor();
-                contributor.setName(user.getMetadata().getName());
-                contributor.setDisplayName(user.getSpec().getDisplayName());
-                contributor.setAvatar(user.getSpec().getAvatar());
-                return contributor;
-            })
-            .doOnNext(moment::setOwner)
-            .thenReturn(moment);
-    }
-
-    private Mono<Stats> fetchStats(Moment moment) {
         Assert.notNull(moment, "The moment must not be null.");
-        String name = moment.getMetadata().getName();
-        return client.fetch(Counter.class, MeterUtils.nameOf(Moment.class, name))
-            .map(counter -> Stats.builder()
-                .upvote(counter.getUpvote())
-                .totalComment(counter.getTotalComment())
-                .approvedComment(counter.getApprovedComment())
-                .build())
-            .defaultIfEmpty(Stats.empty());
+        return momentEnricher.enrich(List.of(moment), MomentFields.ALL,
+                enriched -> toListedMoment(enriched, MomentFields.ALL))
+            .map(listedMoments -> listedMoments.get(0));
+    }
 
+    static ListedMoment toListedMoment(MomentEnricher.EnrichedMoment enrichedMoment,
+        MomentFields fields) {
+        var owner = enrichedMoment.owner();
+        return ListedMoment.builder()
+            .moment(fields.project(enrichedMoment.moment()))
+            .owner(owner == null ? null : Contributor.from(owner))
+            .stats(enrichedMoment.stats())
+            .build();
     }
 
     protected Mono<User> getContextUser() {
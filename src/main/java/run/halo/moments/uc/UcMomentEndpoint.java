@@ -8,7 +8,7 @@ import static org.springdoc.core.fn.builders.requestbody.Builder.requestBodyBuil
 import java.time.Instant;
 import java.util.Set;
 
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springdoc.core.fn.builders.schema.Builder;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
 import org.springframework.http.HttpStatus;
@@ -28,8 +28,11 @@ import reactor.core.publisher.Mono;
 import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
 import run.halo.app.extension.ListResult;
+import run.halo.moments.CursorListResult;
 import run.halo.moments.ListedMoment;
 import run.halo.moments.Moment;
+import run.halo.moments.MomentCursor;
+import run.halo.moments.MomentETags;
 import run.halo.moments.MomentQuery;
 import run.halo.moments.service.MomentService;
 import run.halo.moments.service.RoleService;
@@ -129,10 +132,18 @@ public class UcMomentEndpoint implements CustomEndpoint {
                     .parameter(parameterBuilder()
                         .name("name")
                         .in(ParameterIn.QUERY)
-                        .description("Tag name to query")
+                        .description("Tag name to query, tags starting with it are ranked "
+                            + "first")
                         .required(false)
                         .implementation(String.class)
                     )
+                    .parameter(parameterBuilder()
+                        .name("limit")
+                        .in(ParameterIn.QUERY)
+                        .description("Maximum number of tags to return")
+                        .required(false)
+                        .implementation(Integer.class)
+                    )
                     .response(responseBuilder()
                         .implementationArray(String.class)
                     ))
@@ -208,8 +219,17 @@ public class UcMomentEndpoint implements CustomEndpoint {
     private Mono<ServerResponse> listMyMoment(ServerRequest request) {
         return getCurrentUser()
             .map(user -> new MomentQuery(request.exchange(), user.getName()))
-            .flatMap(momentService::listMoment)
-            .flatMap(listedMoments -> ServerResponse.ok().bodyValue(listedMoments));
+            .flatMap(query -> momentService.listEnrichedMoments(query)
+                .flatMap(enriched -> MomentETags.okOrNotModified(request,
+                    MomentETags.ofEnrichedMoments(enriched, query.getFields(),
+                        query.isCursorPaging()), () -> {
+                        var result = momentService.toListedMoments(enriched,
+                            query.getFields());
+                        return query.isCursorPaging()
+                            ? CursorListResult.of(result,
+                            listedMoment -> MomentCursor.of(listedMoment.getMoment())) : result;
+                    }))
+            );
     }
 
     private Mono<Authentication> getCurrentUser() {
@@ -219,11 +239,13 @@ public class UcMomentEndpoint implements CustomEndpoint {
 
     private Mono<ServerResponse> listMyTags(ServerRequest request) {
         String name = request.queryParam("name").orElse(null);
+        int limit = request.queryParam("limit")
+            .map(value -> NumberUtils.toInt(value, Integer.MAX_VALUE))
+            .filter(value -> value > 0)
+            .orElse(Integer.MAX_VALUE);
         return getCurrentUser()
-            .map(user -> new MomentQuery(request.exchange(), user.getName()))
-            .flatMapMany(momentService::listAllTags)
-            .filter(tagName -> StringUtils.isBlank(name) || StringUtils.containsIgnoreCase(tagName,
-                name))
+            .map(Authentication::getName)
+            .flatMapMany(username -> momentService.listTags(username, name, limit))
             .collectList()
             .flatMap(result -> ServerResponse.ok().bodyValue(result));
     }
@@ -0,0 +1,160 @@
+package run.halo.moments.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * <p>A thread-safe in-memory cache bounded by a maximum size, evicting the least recently used
+ * entry first. Entries also expire after a fixed time to live.</p>
+ * <p>Hits and misses are recorded as {@code moments.cache.gets} and the current size as
+ * {@code moments.cache.size}, both tagged with the cache name.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final long timeToLiveNanos;
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    /**
+     * Creates a cache.
+     *
+     * @param name cache name used as metric tag
+     * @param maximumSize maximum number of entries
+     * @param timeToLive time to live of an entry after it was written
+     * @param meterRegistry registry to record hits and misses to
+     */
+    public ExpiringLruCache(String name, int maximumSize, Duration timeToLive,
+        MeterRegistry meterRegistry) {
+        Assert.hasText(name, "The cache name must not be blank.");
+        Assert.isTrue(maximumSize > 0, "The maximum size must be greater than 0.");
+        Assert.isTrue(timeToLive != null && !timeToLive.isNegative() && !timeToLive.isZero(),
+            "The time to live must be positive.");
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        this.hitCounter = Counter.builder("moments.cache.gets")
+            .tag("cache", name)
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("moments.cache.gets")
+            .tag("cache", name)
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("moments.cache.size", this, ExpiringLruCache::size)
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Gets the value of the given key.
+     *
+     * @return the cached value, or null if absent or expired
+     */
+    @Nullable
+    public V get(K key) {
+        V value;
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+            value = entry == null ? null : entry.value();
+        }
+        if (value == null) {
+            missCounter.increment();
+        } else {
+            hitCounter.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Gets the value of the given key without recording a hit or miss, for writers that only
+     * compare against the cached value.
+     *
+     * @return the cached value, or null if absent or expired
+     */
+    @Nullable
+    public V peek(K key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            return entry == null || entry.isExpired(System.nanoTime()) ? null : entry.value();
+        }
+    }
+
+    public void put(K key, V value) {
+        Assert.notNull(value, "The cached value must not be null.");
+        var entry = new CacheEntry<>(value, System.nanoTime() + timeToLiveNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Caches the given value unless the key already has a value, so a value loaded from the
+     * store does not overwrite one written meanwhile.
+     *
+     * @return the value cached for the key after the call
+     */
+    public V putIfAbsent(K key, V value) {
+        Assert.notNull(value, "The cached value must not be null.");
+        var now = System.nanoTime();
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                return entry.value();
+            }
+            entries.put(key, new CacheEntry<>(value, now + timeToLiveNanos));
+            return value;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        synchronized (entries) {
+            entries.keySet().removeIf(predicate);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record CacheEntry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
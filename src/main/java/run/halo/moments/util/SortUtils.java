@@ -5,12 +5,15 @@ import org.springframework.data.domain.Sort;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import run.halo.moments.Moment;
 import java.util.List;
 
 @UtilityClass
 public class SortUtils {
     static final String delimiter = ",";
 
+    static final String RELEASE_TIME = "spec.releaseTime";
+
     /**
      * <p>Resolve from direction params, e.g. "name,asc" or "name"</p>
      *
@@ -33,6 +36,20 @@ public class SortUtils {
         return Sort.by(orders);
     }
 
+    /**
+     * Replaces the orders by <code>spec.releaseTime</code> with orders by the fixed-width
+     * {@link Moment#RELEASE_TIME_KEY_INDEX_NAME} index.
+     *
+     * @param sort sort object
+     * @return sort object ordering by the release time key
+     */
+    public static Sort releaseTimeByKey(Sort sort) {
+        return Sort.by(sort.stream()
+            .map(order -> RELEASE_TIME.equals(order.getProperty())
+                ? order.withProperty(Moment.RELEASE_TIME_KEY_INDEX_NAME) : order)
+            .toList());
+    }
+
     private static Sort.Direction toDirection(@NonNull String direction) {
         Assert.notNull(direction, "Direction must not be null");
         if (direction.contains(" ")) {
@@ -0,0 +1,36 @@
+package run.halo.moments.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.infra.utils.JsonUtils;
+
+@UtilityClass
+public class SystemConfigUtils {
+
+    /**
+     * Name of the {@link ConfigMap} holding the system settings, such as the external URL and
+     * the active theme.
+     */
+    public static final String SYSTEM_CONFIG_NAME = "system";
+
+    private static final String THEME_GROUP = "theme";
+
+    /**
+     * Reads the name of the active theme from the given system config.
+     *
+     * @return the active theme, or null if none is set
+     */
+    @Nullable
+    public static String activeTheme(ConfigMap systemConfig) {
+        var data = systemConfig.getData();
+        var theme = data == null ? null : data.get(THEME_GROUP);
+        if (StringUtils.isBlank(theme)) {
+            return null;
+        }
+        var active = JsonUtils.jsonToObject(theme, JsonNode.class).path("active").asText();
+        return StringUtils.defaultIfBlank(active, null);
+    }
+}
@@ -1,29 +1,29 @@
 package run.halo.moments.vo;
 
-import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 import run.halo.app.core.extension.User;
 
 /**
- * Listed comment.
+ * Listed comment. Immutable, as instances are shared through the contributor cache.
  *
  * @author LIlGG
  * @since 2.0.0
  */
-@Data
+@Getter
 @SuperBuilder
 @ToString
 @EqualsAndHashCode
 public class ContributorVo {
-    private String name;
+    private final String name;
     
-    private String avatar;
+    private final String avatar;
     
-    private String bio;
+    private final String bio;
     
-    private String displayName;
+    private final String displayName;
     
     public static ContributorVo from(User user) {
         return builder().name(user.getMetadata().getName())
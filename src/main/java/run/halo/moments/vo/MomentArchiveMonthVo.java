@@ -0,0 +1,16 @@
+package run.halo.moments.vo;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Moment count of a month.
+ */
+@Value
+@Builder
+public class MomentArchiveMonthVo {
+
+    Integer month;
+
+    Integer momentCount;
+}
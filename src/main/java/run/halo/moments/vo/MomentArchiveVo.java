@@ -0,0 +1,19 @@
+package run.halo.moments.vo;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Moment counts of a year and its months.
+ */
+@Value
+@Builder
+public class MomentArchiveVo {
+
+    Integer year;
+
+    Integer momentCount;
+
+    List<MomentArchiveMonthVo> months;
+}
@@ -0,0 +1,24 @@
+package run.halo.moments.vo;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Value;
+import run.halo.moments.Moment;
+
+/**
+ * A media item of a moment, for galleries.
+ */
+@Value
+@Builder
+public class MomentMediaVo {
+
+    String momentName;
+
+    Instant releaseTime;
+
+    Moment.MomentMediaType type;
+
+    String url;
+
+    String originType;
+}
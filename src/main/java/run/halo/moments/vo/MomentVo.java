@@ -1,5 +1,6 @@
 package run.halo.moments.vo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -25,8 +26,10 @@ public class MomentVo {
     
     private Moment.MomentSpec spec;
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private ContributorVo owner;
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Stats stats;
     
     public static MomentVo from(Moment moment) {
@@ -0,0 +1,74 @@
+package run.halo.moments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.server.ServerWebInputException;
+import run.halo.app.extension.Metadata;
+
+class MomentCursorTest {
+
+    @Test
+    void shouldDecodeEncodedCursor() {
+        var cursor = new MomentCursor(Instant.parse("2024-05-01T08:30:15.123456789Z"),
+            "moment-a|b");
+
+        var encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(cursor, MomentCursor.decode(encoded));
+    }
+
+    @Test
+    void shouldDecodeCursorBeforeEpoch() {
+        var cursor = new MomentCursor(Instant.parse("1960-01-01T00:00:00Z"), "moment-a");
+
+        assertEquals(cursor, MomentCursor.decode(cursor.encode()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " "})
+    void shouldDecodeBlankCursorToNull(String cursor) {
+        assertNull(MomentCursor.decode(cursor));
+        assertNull(MomentCursor.decode(null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "2024-05-01T08:30:15Z|moment-a",
+        "bm90LWEtdGltZXxtb21lbnQtYQ", "MjAyNC0wNS0wMVQwODozMDoxNVp8"})
+    void shouldRejectMalformedCursor(String cursor) {
+        assertThrows(ServerWebInputException.class, () -> MomentCursor.decode(cursor));
+    }
+
+    @Test
+    void shouldRejectCursorWithoutSeparator() {
+        var cursor = Base64.getUrlEncoder()
+            .encodeToString("2024-05-01T08:30:15Z".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(ServerWebInputException.class, () -> MomentCursor.decode(cursor));
+    }
+
+    @Test
+    void shouldCreateCursorOfMoment() {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName("moment-a");
+        moment.setMetadata(metadata);
+        moment.setSpec(new Moment.MomentSpec());
+
+        assertNull(MomentCursor.of(moment));
+
+        var releaseTime = Instant.parse("2024-05-01T08:30:15Z");
+        moment.getSpec().setReleaseTime(releaseTime);
+
+        assertEquals(new MomentCursor(releaseTime, "moment-a"), MomentCursor.of(moment));
+    }
+}
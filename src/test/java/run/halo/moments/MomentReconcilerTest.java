@@ -0,0 +1,215 @@
+package run.halo.moments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.app.notification.NotificationCenter;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.search.DocumentConverter;
+import run.halo.moments.search.MomentSearchBatcher;
+
+@ExtendWith(MockitoExtension.class)
+class MomentReconcilerTest {
+
+    @Mock
+    ExtensionClient client;
+
+    @Mock
+    NotificationCenter notificationCenter;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    MomentSearchBatcher searchBatcher;
+
+    @Mock
+    ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    MomentReconciler reconciler;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        reconciler = new MomentReconciler(client, notificationCenter, eventPublisher,
+            searchBatcher, meterRegistryProvider);
+    }
+
+    @Test
+    void shouldNeitherWriteNorNotifyWhenNothingChanged() {
+        var moment = createReconciledMoment();
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        verify(client, never()).update(any());
+        verifyNoInteractions(eventPublisher, searchBatcher, notificationCenter);
+        assertEquals(1, writes("skipped"));
+        assertEquals(0, writes("applied"));
+    }
+
+    @Test
+    void shouldWriteOnceAndNotifyWhenSpecChanged() {
+        var moment = createReconciledMoment();
+        // edited by the user after the last pass
+        moment.getMetadata().setVersion(3L);
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        verify(client, times(1)).update(moment);
+        assertEquals(4L, moment.getStatus().getObservedVersion());
+        var event = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertInstanceOf(MomentUpdatedEvent.class, event.getValue());
+        // the search document is unchanged
+        verifyNoInteractions(searchBatcher);
+        assertEquals(1, writes("applied"));
+    }
+
+    @Test
+    void shouldRecordSearchDigestInTheSingleWrite() {
+        var moment = createReconciledMoment();
+        moment.getSpec().getContent().setHtml("<p>edited</p>");
+        moment.getMetadata().setVersion(3L);
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        assertFalse(DocumentConverter.requiresSearchSync(moment));
+        var inOrder = inOrder(client, searchBatcher);
+        inOrder.verify(client, times(1)).update(moment);
+        // only persisted moments are indexed
+        inOrder.verify(searchBatcher).add(moment);
+        verify(client, times(1)).update(any());
+    }
+
+    @Test
+    void shouldApplyAllStagesToNewMomentInOneWrite() {
+        var moment = createReconciledMoment();
+        moment.getMetadata().setFinalizers(null);
+        moment.getMetadata().setAnnotations(null);
+        moment.setStatus(null);
+        moment.getSpec().setApproved(null);
+        moment.getSpec().setApprovedTime(null);
+        moment.getSpec().setReleaseTime(null);
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+        when(notificationCenter.subscribe(any(), any())).thenReturn(Mono.empty());
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        verify(client, times(1)).update(moment);
+        var finalizers = moment.getMetadata().getFinalizers();
+        assertTrue(finalizers.containsAll(
+            Set.of("moment-protection", "moment-search-protection")));
+        var createdAt = moment.getMetadata().getCreationTimestamp();
+        assertEquals(createdAt, moment.getSpec().getReleaseTime());
+        assertTrue(moment.getSpec().getApproved());
+        assertEquals(createdAt, moment.getSpec().getApprovedTime());
+        assertNotNull(moment.getStatus());
+        assertFalse(DocumentConverter.requiresSearchSync(moment));
+        verify(notificationCenter).subscribe(any(), any());
+        verify(searchBatcher).add(moment);
+    }
+
+    @Test
+    void shouldRemoveFinalizersOfDeletedMomentInOneWrite() {
+        var moment = createReconciledMoment();
+        moment.getMetadata().setDeletionTimestamp(Instant.now());
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        verify(client, times(1)).update(moment);
+        assertTrue(moment.getMetadata().getFinalizers().isEmpty());
+        verify(searchBatcher).delete(moment);
+        var event = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertInstanceOf(MomentDeletedEvent.class, event.getValue());
+    }
+
+    @Test
+    void shouldSkipDeletedMomentWithoutFinalizers() {
+        var moment = createReconciledMoment();
+        moment.getMetadata().setDeletionTimestamp(Instant.now());
+        moment.getMetadata().setFinalizers(new HashSet<>());
+        when(client.fetch(Moment.class, "moment-a")).thenReturn(Optional.of(moment));
+
+        reconciler.reconcile(new Reconciler.Request("moment-a"));
+
+        verify(client, never()).update(any());
+        verifyNoInteractions(eventPublisher, searchBatcher);
+    }
+
+    private double writes(String result) {
+        return meterRegistry.get("moments.reconcile.writes").tag("result", result).counter()
+            .count();
+    }
+
+    /**
+     * Creates a moment as left by a previous pass.
+     */
+    private static Moment createReconciledMoment() {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName("moment-a");
+        metadata.setVersion(2L);
+        metadata.setCreationTimestamp(Instant.parse("2024-05-01T00:00:00Z"));
+        metadata.setFinalizers(
+            new HashSet<>(Set.of("moment-protection", "moment-search-protection")));
+        moment.setMetadata(metadata);
+        var content = new Moment.MomentContent();
+        content.setRaw("<p>hello</p>");
+        content.setHtml("<p>hello</p>");
+        var spec = new Moment.MomentSpec();
+        spec.setContent(content);
+        spec.setOwner("admin");
+        spec.setVisible(Moment.MomentVisible.PUBLIC);
+        spec.setReleaseTime(Instant.parse("2024-05-01T00:00:00Z"));
+        spec.setApproved(true);
+        spec.setApprovedTime(Instant.parse("2024-05-01T00:00:00Z"));
+        moment.setSpec(spec);
+        var status = new Moment.Status();
+        status.setObservedVersion(2L);
+        moment.setStatus(status);
+        var annotations = new HashMap<String, String>();
+        annotations.put(DocumentConverter.SEARCH_DIGEST_ANNO,
+            DocumentConverter.searchDigest(moment));
+        metadata.setAnnotations(annotations);
+        return moment;
+    }
+}
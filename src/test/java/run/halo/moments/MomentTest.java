@@ -0,0 +1,49 @@
+package run.halo.moments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MomentTest {
+
+    private static final List<Instant> ORDERED_INSTANTS = List.of(
+        Instant.MIN,
+        Instant.parse("1900-01-01T00:00:00Z"),
+        Instant.ofEpochSecond(-1, 999_999_999),
+        Instant.ofEpochSecond(0),
+        Instant.ofEpochSecond(0, 1),
+        Instant.ofEpochSecond(0, 10),
+        Instant.ofEpochSecond(1),
+        Instant.ofEpochSecond(9, 500_000_000),
+        Instant.ofEpochSecond(10),
+        Instant.parse("2024-05-01T08:30:15Z"),
+        Instant.MAX
+    );
+
+    @Test
+    void releaseTimeKeyShouldHaveFixedWidth() {
+        ORDERED_INSTANTS.forEach(instant ->
+            assertEquals(29, Moment.releaseTimeKey(instant).length(), instant::toString));
+    }
+
+    @Test
+    void releaseTimeKeyShouldSortLikeReleaseTime() {
+        var keys = ORDERED_INSTANTS.stream().map(Moment::releaseTimeKey).toList();
+
+        assertEquals(keys, keys.stream().sorted(Comparator.naturalOrder()).toList());
+        assertEquals(keys.size(), keys.stream().distinct().count());
+    }
+
+    @Test
+    void releaseTimeKeyShouldOrderAroundEpoch() {
+        var beforeEpoch = Moment.releaseTimeKey(Instant.ofEpochSecond(-1));
+        var epoch = Moment.releaseTimeKey(Instant.EPOCH);
+        var afterEpoch = Moment.releaseTimeKey(Instant.ofEpochSecond(1));
+
+        assertEquals(-1, Integer.signum(beforeEpoch.compareTo(epoch)));
+        assertEquals(-1, Integer.signum(epoch.compareTo(afterEpoch)));
+    }
+}
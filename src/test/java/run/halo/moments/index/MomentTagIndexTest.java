@@ -0,0 +1,163 @@
+package run.halo.moments.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequest;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.moments.Moment;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.event.MomentUpdatedEvent;
+import run.halo.moments.index.MomentTagIndex.TagCount;
+
+@ExtendWith(MockitoExtension.class)
+class MomentTagIndexTest {
+
+    @Mock
+    ReactiveExtensionClient client;
+
+    @Test
+    void shouldLoadTagCountsFromStore() {
+        var tagIndex = createIndex(
+            createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true, "java", "halo"),
+            createMoment("b", "admin", Moment.MomentVisible.PUBLIC, true, "java"));
+
+        assertEquals(List.of(new TagCount("java", 2), new TagCount("halo", 1)),
+            tagIndex.listVisibleTags(null).block());
+    }
+
+    @Test
+    void shouldCountVisibleTagsByVisibilityAndApproval() {
+        var tagIndex = createIndex();
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "java", "halo"));
+        update(tagIndex, createMoment("b", "admin", Moment.MomentVisible.PUBLIC, true, "java"));
+        update(tagIndex, createMoment("c", "admin", Moment.MomentVisible.PRIVATE, true,
+            "secret"));
+        update(tagIndex, createMoment("d", "bob", Moment.MomentVisible.PUBLIC, false, "draft"));
+
+        assertEquals(List.of(new TagCount("java", 2), new TagCount("halo", 1)),
+            tagIndex.listVisibleTags(null).block());
+        assertEquals(List.of(new TagCount("java", 2), new TagCount("halo", 1),
+            new TagCount("secret", 1)), tagIndex.listVisibleTags("admin").block());
+        assertEquals(List.of(new TagCount("java", 2), new TagCount("halo", 1)),
+            tagIndex.listVisibleTags("bob").block());
+    }
+
+    @Test
+    void shouldApplyDeltasOnChange() {
+        var tagIndex = createIndex();
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "java", "halo"));
+        update(tagIndex, createMoment("b", "admin", Moment.MomentVisible.PUBLIC, true, "java"));
+
+        update(tagIndex, createMoment("b", "admin", Moment.MomentVisible.PUBLIC, true, "halo"));
+        assertEquals(List.of(new TagCount("halo", 2), new TagCount("java", 1)),
+            tagIndex.listVisibleTags(null).block());
+
+        // hidden from visitors, but still counted for its owner
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PRIVATE, true,
+            "java", "halo"));
+        assertEquals(List.of(new TagCount("halo", 1)), tagIndex.listVisibleTags(null).block());
+        assertEquals(List.of(new TagCount("halo", 2), new TagCount("java", 1)),
+            tagIndex.listVisibleTags("admin").block());
+
+        tagIndex.onMomentDeleted(new MomentDeletedEvent(this, "a"));
+        assertEquals(List.of(new TagCount("halo", 1)),
+            tagIndex.listVisibleTags("admin").block());
+    }
+
+    @Test
+    void shouldListOwnerTagsStartingWithKeywordFirst() {
+        var tagIndex = createIndex();
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "Java", "NoJava", "python"));
+        update(tagIndex, createMoment("b", "admin", Moment.MomentVisible.PRIVATE, false,
+            "Java", "NoJava", "javascript"));
+        update(tagIndex, createMoment("c", "admin", Moment.MomentVisible.PUBLIC, true,
+            "NoJava"));
+        update(tagIndex, createMoment("d", "bob", Moment.MomentVisible.PUBLIC, true,
+            "javafx"));
+
+        assertEquals(List.of(new TagCount("Java", 2), new TagCount("javascript", 1),
+                new TagCount("NoJava", 3)),
+            tagIndex.listOwnerTags("admin", "JAVA", 10).block());
+        assertEquals(List.of(new TagCount("Java", 2), new TagCount("javascript", 1)),
+            tagIndex.listOwnerTags("admin", "java", 2).block());
+        assertEquals(List.of(new TagCount("python", 1)),
+            tagIndex.listOwnerTags("admin", "Py", 10).block());
+    }
+
+    @Test
+    void shouldListAllOwnerTagsWithoutKeyword() {
+        var tagIndex = createIndex();
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "java", "halo"));
+        update(tagIndex, createMoment("b", "admin", Moment.MomentVisible.PUBLIC, true, "java"));
+        update(tagIndex, createMoment("c", "bob", Moment.MomentVisible.PUBLIC, true, "javafx"));
+
+        assertEquals(List.of(new TagCount("java", 2)),
+            tagIndex.listOwnerTags("admin", " ", 1).block());
+        assertEquals(List.of(new TagCount("java", 2), new TagCount("javafx", 1)),
+            tagIndex.listOwnerTags(null, "jav", 10).block());
+        assertEquals(List.of(), tagIndex.listOwnerTags("nobody", null, 10).block());
+    }
+
+    @Test
+    void shouldDropUnusedTagsFromPrefixIndex() {
+        var tagIndex = createIndex();
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "Java", "java"));
+
+        assertEquals(List.of(new TagCount("Java", 1), new TagCount("java", 1)),
+            tagIndex.listOwnerTags("admin", "ja", 10).block());
+
+        update(tagIndex, createMoment("a", "admin", Moment.MomentVisible.PUBLIC, true,
+            "java"));
+        assertEquals(List.of(new TagCount("java", 1)),
+            tagIndex.listOwnerTags("admin", "ja", 10).block());
+
+        tagIndex.onMomentDeleted(new MomentDeletedEvent(this, "a"));
+        assertEquals(List.of(), tagIndex.listOwnerTags("admin", "ja", 10).block());
+    }
+
+    private MomentTagIndex createIndex(Moment... stored) {
+        when(client.listBy(same(Moment.class), any(ListOptions.class), any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 200, stored.length, List.of(stored))));
+        var tagIndex = new MomentTagIndex(client);
+        // loads before the changes are applied
+        tagIndex.listVisibleTags(null).block();
+        return tagIndex;
+    }
+
+    private void update(MomentTagIndex tagIndex, Moment moment) {
+        tagIndex.onMomentUpdated(new MomentUpdatedEvent(this, moment));
+    }
+
+    private static Moment createMoment(String name, String owner,
+        Moment.MomentVisible visible, boolean approved, String... tags) {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName(name);
+        moment.setMetadata(metadata);
+        var spec = new Moment.MomentSpec();
+        spec.setOwner(owner);
+        spec.setVisible(visible);
+        spec.setApproved(approved);
+        spec.setTags(new LinkedHashSet<>(List.of(tags)));
+        moment.setSpec(spec);
+        return moment;
+    }
+}
@@ -0,0 +1,58 @@
+package run.halo.moments.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MomentTokenizerTest {
+
+    @Test
+    void shouldSplitLatinTextIntoLowerCasedWords() {
+        assertEquals(List.of("hello", "world", "2024", "hello"),
+            MomentTokenizer.tokenize("Hello, World! 2024 -- HELLO"));
+    }
+
+    @Test
+    void shouldIndexCjkRunsAsCharactersAndBigrams() {
+        assertEquals(List.of("世", "界", "世界", "和", "界和", "平", "和平"),
+            MomentTokenizer.tokenize("世界和平"));
+    }
+
+    @Test
+    void shouldSplitRunsAtScriptBoundaries() {
+        assertEquals(List.of("java", "开", "发", "开发", "jdk17"),
+            MomentTokenizer.tokenize("Java开发JDK17"));
+        assertEquals(List.of("こ", "ん", "こん", "안", "녕", "안녕"),
+            MomentTokenizer.tokenize("こん 안녕"));
+    }
+
+    @Test
+    void shouldQueryCjkRunsByBigrams() {
+        assertEquals(List.of("世界", "界和", "和平"),
+            List.copyOf(MomentTokenizer.tokenizeQuery("世界和平")));
+        assertEquals(List.of("java", "开发"),
+            List.copyOf(MomentTokenizer.tokenizeQuery("Java 开发 java")));
+    }
+
+    @Test
+    void shouldQuerySingleCjkCharacterByItself() {
+        assertEquals(List.of("世"), List.copyOf(MomentTokenizer.tokenizeQuery("世")));
+    }
+
+    @Test
+    void shouldMatchEveryQueryTokenOfIndexedText() {
+        var tokens = MomentTokenizer.tokenize("今天的天气很好");
+
+        assertTrue(tokens.containsAll(MomentTokenizer.tokenizeQuery("天气")));
+        assertTrue(tokens.containsAll(MomentTokenizer.tokenizeQuery("天气很好")));
+        assertTrue(tokens.containsAll(MomentTokenizer.tokenizeQuery("气")));
+    }
+
+    @Test
+    void shouldIgnoreBlankText() {
+        assertTrue(MomentTokenizer.tokenize(" \t,.").isEmpty());
+        assertTrue(MomentTokenizer.tokenizeQuery("").isEmpty());
+    }
+}
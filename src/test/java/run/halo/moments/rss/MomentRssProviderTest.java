@@ -0,0 +1,157 @@
+package run.halo.moments.rss;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequest;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.infra.ExternalLinkProcessor;
+import run.halo.app.infra.ExternalUrlSupplier;
+import run.halo.app.infra.SystemInfoGetter;
+import run.halo.app.plugin.ReactiveSettingFetcher;
+import run.halo.feed.RSS2;
+import run.halo.moments.Moment;
+import run.halo.moments.event.MomentDeletedEvent;
+import run.halo.moments.finders.MomentPublicQueryService;
+import run.halo.moments.vo.ContributorVo;
+import run.halo.moments.vo.MomentVo;
+
+@ExtendWith(MockitoExtension.class)
+class MomentRssProviderTest {
+
+    @Mock
+    ExternalUrlSupplier externalUrlSupplier;
+
+    @Mock
+    ExternalLinkProcessor externalLinkProcessor;
+
+    @Mock
+    ReactiveExtensionClient client;
+
+    @Mock
+    ReactiveSettingFetcher settingFetcher;
+
+    @Mock
+    MomentPublicQueryService momentPublicQueryService;
+
+    @Mock
+    SystemInfoGetter systemInfoGetter;
+
+    @Mock
+    MomentFeedHtmlRenderer feedHtmlRenderer;
+
+    @InjectMocks
+    MomentRssProvider rssProvider;
+
+    @Test
+    void shouldFillWindowPastItemsReleasedWithTheLastItem() {
+        var a = createMoment("a", Instant.parse("2024-05-02T00:00:00Z"));
+        var b = createMoment("b", Instant.parse("2024-05-01T00:00:00Z"));
+        // released at the same time as b, but after it in the window order
+        var c = createMoment("c", Instant.parse("2024-05-01T00:00:00Z"));
+        when(momentPublicQueryService.getMomentVos(anyList()))
+            .thenAnswer(invocation -> Mono.just(toMomentVos(invocation.getArgument(0))));
+        when(client.listBy(same(Moment.class), any(ListOptions.class), any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 3, List.of(a, b))))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 2, List.of(b, c))));
+
+        assertEquals(List.of("moments/a", "moments/b"), guids(rssProvider.listItems(2).block()));
+
+        rssProvider.onMomentDeleted(new MomentDeletedEvent(this, "a"));
+
+        assertEquals(List.of("moments/b", "moments/c"), guids(rssProvider.listItems(2).block()));
+        var pageRequests = ArgumentCaptor.forClass(PageRequest.class);
+        verify(client, times(2)).listBy(same(Moment.class), any(ListOptions.class),
+            pageRequests.capture());
+        assertEquals(2, pageRequests.getAllValues().get(0).getPageSize());
+        // one missing item plus b, which is already in the window
+        assertEquals(2, pageRequests.getAllValues().get(1).getPageSize());
+    }
+
+    @Test
+    void shouldFillWindowWithoutTies() {
+        var a = createMoment("a", Instant.parse("2024-05-03T00:00:00Z"));
+        var b = createMoment("b", Instant.parse("2024-05-02T00:00:00Z"));
+        var c = createMoment("c", Instant.parse("2024-05-01T00:00:00Z"));
+        when(momentPublicQueryService.getMomentVos(anyList()))
+            .thenAnswer(invocation -> Mono.just(toMomentVos(invocation.getArgument(0))));
+        when(client.listBy(same(Moment.class), any(ListOptions.class), any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 3, List.of(a, b))))
+            .thenReturn(Mono.just(new ListResult<>(1, 1, 1, List.of(c))));
+
+        rssProvider.listItems(2).block();
+        rssProvider.onMomentDeleted(new MomentDeletedEvent(this, "a"));
+
+        assertEquals(List.of("moments/b", "moments/c"), guids(rssProvider.listItems(2).block()));
+        var pageRequests = ArgumentCaptor.forClass(PageRequest.class);
+        verify(client, times(2)).listBy(same(Moment.class), any(ListOptions.class),
+            pageRequests.capture());
+        assertEquals(1, pageRequests.getAllValues().get(1).getPageSize());
+    }
+
+    @Test
+    void shouldNotQueryAgainWhenExhausted() {
+        var a = createMoment("a", Instant.parse("2024-05-02T00:00:00Z"));
+        var b = createMoment("b", Instant.parse("2024-05-01T00:00:00Z"));
+        when(momentPublicQueryService.getMomentVos(anyList()))
+            .thenAnswer(invocation -> Mono.just(toMomentVos(invocation.getArgument(0))));
+        when(client.listBy(same(Moment.class), any(ListOptions.class), any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 2, List.of(a, b))));
+
+        rssProvider.listItems(2).block();
+        rssProvider.onMomentDeleted(new MomentDeletedEvent(this, "a"));
+
+        assertEquals(List.of("moments/b"), guids(rssProvider.listItems(2).block()));
+        verify(client, times(1)).listBy(same(Moment.class), any(ListOptions.class),
+            any(PageRequest.class));
+    }
+
+    private static List<String> guids(List<RSS2.Item> items) {
+        return items.stream().map(RSS2.Item::getGuid).toList();
+    }
+
+    private static List<MomentVo> toMomentVos(List<Moment> moments) {
+        return moments.stream()
+            .map(moment -> {
+                var momentVo = MomentVo.from(moment);
+                momentVo.setOwner(ContributorVo.builder()
+                    .name(moment.getSpec().getOwner())
+                    .displayName("Admin")
+                    .build());
+                return momentVo;
+            })
+            .toList();
+    }
+
+    private static Moment createMoment(String name, Instant releaseTime) {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName(name);
+        moment.setMetadata(metadata);
+        var spec = new Moment.MomentSpec();
+        spec.setContent(new Moment.MomentContent());
+        spec.setOwner("admin");
+        spec.setVisible(Moment.MomentVisible.PUBLIC);
+        spec.setApproved(true);
+        spec.setReleaseTime(releaseTime);
+        moment.setSpec(spec);
+        return moment;
+    }
+}
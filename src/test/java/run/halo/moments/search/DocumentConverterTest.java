@@ -0,0 +1,105 @@
+package run.halo.moments.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static run.halo.moments.search.DocumentConverter.SEARCH_DIGEST_ANNO;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import run.halo.app.extension.Metadata;
+import run.halo.moments.Moment;
+
+class DocumentConverterTest {
+
+    @Test
+    void shouldRequireSyncWhenNeverIndexed() {
+        var moment = createMoment();
+
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+
+        moment.getMetadata().setAnnotations(new HashMap<>());
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+    }
+
+    @Test
+    void shouldNotRequireSyncWhenIndexedFieldsAreUnchanged() {
+        var moment = createMoment();
+        markIndexed(moment);
+
+        assertFalse(DocumentConverter.requiresSearchSync(moment));
+
+        // fields not written to the search document
+        moment.getSpec().setApproved(false);
+        moment.getSpec().getContent().setRaw("<p>edited</p>");
+        moment.getMetadata().setLabels(Map.of("foo", "bar"));
+        assertFalse(DocumentConverter.requiresSearchSync(moment));
+    }
+
+    @Test
+    void shouldRequireSyncWhenIndexedFieldsChange() {
+        var moment = createMoment();
+        markIndexed(moment);
+        moment.getSpec().getContent().setHtml("<p>edited</p>");
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+
+        moment = createMoment();
+        markIndexed(moment);
+        moment.getSpec().getTags().add("new-tag");
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+
+        moment = createMoment();
+        markIndexed(moment);
+        moment.getSpec().setOwner("other");
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+
+        moment = createMoment();
+        markIndexed(moment);
+        moment.getSpec().setVisible(Moment.MomentVisible.PRIVATE);
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+
+        moment = createMoment();
+        markIndexed(moment);
+        moment.getSpec().setReleaseTime(Instant.parse("2024-05-02T00:00:00Z"));
+        assertTrue(DocumentConverter.requiresSearchSync(moment));
+    }
+
+    @Test
+    void searchDigestShouldIgnoreTagOrder() {
+        var moment = createMoment();
+        var digest = DocumentConverter.searchDigest(moment);
+
+        moment.getSpec().setTags(new LinkedHashSet<>(List.of("b", "a")));
+
+        assertEquals(digest, DocumentConverter.searchDigest(moment));
+    }
+
+    private static void markIndexed(Moment moment) {
+        var annotations = new HashMap<String, String>();
+        annotations.put(SEARCH_DIGEST_ANNO, DocumentConverter.searchDigest(moment));
+        moment.getMetadata().setAnnotations(annotations);
+    }
+
+    private static Moment createMoment() {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName("moment-a");
+        moment.setMetadata(metadata);
+        var content = new Moment.MomentContent();
+        content.setRaw("<p>hello</p>");
+        content.setHtml("<p>hello</p>");
+        var spec = new Moment.MomentSpec();
+        spec.setContent(content);
+        spec.setTags(new LinkedHashSet<>(List.of("a", "b")));
+        spec.setOwner("admin");
+        spec.setVisible(Moment.MomentVisible.PUBLIC);
+        spec.setReleaseTime(Instant.parse("2024-05-01T00:00:00Z"));
+        spec.setApproved(true);
+        moment.setSpec(spec);
+        return moment;
+    }
+}
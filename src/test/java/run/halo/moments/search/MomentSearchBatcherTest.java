@@ -0,0 +1,190 @@
+package run.halo.moments.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Metadata;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.event.HaloDocumentAddRequestEvent;
+import run.halo.app.search.event.HaloDocumentDeleteRequestEvent;
+import run.halo.moments.Moment;
+
+@ExtendWith(MockitoExtension.class)
+class MomentSearchBatcherTest {
+
+    /**
+     * Long enough that only a full batch or shutdown publishes.
+     */
+    private static final long BATCH_WINDOW_MILLIS = 60_000;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    DocumentConverter converter;
+
+    MomentSearchBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestRequestPerDocumentWithinAWindow() {
+        stubConverter();
+        batcher = createBatcher(100);
+        var first = createMoment("a", "<p>first</p>");
+        var latest = createMoment("a", "<p>latest</p>");
+
+        batcher.add(first);
+        batcher.add(createMoment("b", "<p>b</p>"));
+        batcher.add(latest);
+        batcher.destroy();
+        batcher = null;
+
+        var events = publishedEvents();
+        assertEquals(1, events.size());
+        var documents = documents((HaloDocumentAddRequestEvent) events.get(0));
+        assertEquals(List.of("moment-b", "moment-a"),
+            documents.stream().map(HaloDocument::getId).toList());
+        assertEquals("<p>latest</p>", documents.get(1).getContent());
+        verify(converter, never()).convert(first);
+    }
+
+    @Test
+    void shouldOnlyDeleteDocumentDeletedAfterAddWithinAWindow() {
+        stubConverter();
+        batcher = createBatcher(100);
+        var moment = createMoment("a", "<p>a</p>");
+
+        batcher.add(moment);
+        batcher.delete(moment);
+        batcher.destroy();
+        batcher = null;
+
+        var events = publishedEvents();
+        assertEquals(1, events.size());
+        var deleteEvent = (HaloDocumentDeleteRequestEvent) events.get(0);
+        assertEquals(List.of("moment-a"), new ArrayList<>(deleteEvent.getDocIds()));
+        verify(converter, never()).convert(any());
+    }
+
+    @Test
+    void shouldPublishOneEventPerFullBatch() {
+        stubConverter();
+        batcher = createBatcher(2);
+
+        batcher.add(createMoment("a", "<p>a</p>"));
+        batcher.add(createMoment("b", "<p>b</p>"));
+
+        var captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, timeout(5_000)).publishEvent(captor.capture());
+        var documents = documents((HaloDocumentAddRequestEvent) captor.getValue());
+        assertEquals(List.of("moment-a", "moment-b"),
+            documents.stream().map(HaloDocument::getId).toList());
+    }
+
+    @Test
+    void shouldDrainPendingRequestsOnDestroy() {
+        stubConverter();
+        batcher = createBatcher(100);
+
+        batcher.add(createMoment("a", "<p>a</p>"));
+        verify(eventPublisher, never()).publishEvent(any(ApplicationEvent.class));
+        batcher.destroy();
+        batcher = null;
+
+        var events = publishedEvents();
+        assertEquals(1, events.size());
+        assertEquals(List.of("moment-a"),
+            documents((HaloDocumentAddRequestEvent) events.get(0)).stream()
+                .map(HaloDocument::getId)
+                .toList());
+    }
+
+    @Test
+    void shouldSkipMomentsFailingToConvert() {
+        stubConverter();
+        var broken = createMoment("broken", "<p>broken</p>");
+        lenient().when(converter.convert(broken))
+            .thenReturn(Mono.error(new IllegalStateException("conversion failed")));
+        batcher = createBatcher(100);
+
+        batcher.add(broken);
+        batcher.add(createMoment("a", "<p>a</p>"));
+        batcher.destroy();
+        batcher = null;
+
+        var events = publishedEvents();
+        assertEquals(1, events.size());
+        assertEquals(List.of("moment-a"),
+            documents((HaloDocumentAddRequestEvent) events.get(0)).stream()
+                .map(HaloDocument::getId)
+                .toList());
+    }
+
+    private MomentSearchBatcher createBatcher(int batchSize) {
+        var batcher = new MomentSearchBatcher(eventPublisher, converter, batchSize,
+            BATCH_WINDOW_MILLIS, 2);
+        batcher.afterPropertiesSet();
+        return batcher;
+    }
+
+    private void stubConverter() {
+        lenient().when(converter.haloDocId(any()))
+            .thenAnswer(invocation -> "moment-"
+                + invocation.<Moment>getArgument(0).getMetadata().getName());
+        lenient().when(converter.convert(any()))
+            .thenAnswer(invocation -> {
+                Moment moment = invocation.getArgument(0);
+                var haloDoc = new HaloDocument();
+                haloDoc.setId("moment-" + moment.getMetadata().getName());
+                haloDoc.setContent(moment.getSpec().getContent().getHtml());
+                return Mono.just(haloDoc);
+            });
+    }
+
+    private List<ApplicationEvent> publishedEvents() {
+        var captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, atLeast(0)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static List<HaloDocument> documents(HaloDocumentAddRequestEvent event) {
+        var documents = new ArrayList<HaloDocument>();
+        event.getDocuments().forEach(documents::add);
+        return documents;
+    }
+
+    private static Moment createMoment(String name, String html) {
+        var moment = new Moment();
+        var metadata = new Metadata();
+        metadata.setName(name);
+        moment.setMetadata(metadata);
+        var content = new Moment.MomentContent();
+        content.setHtml(html);
+        var spec = new Moment.MomentSpec();
+        spec.setContent(content);
+        moment.setSpec(spec);
+        return moment;
+    }
+}